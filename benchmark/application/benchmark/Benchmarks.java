@@ -0,0 +1,144 @@
+package application.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import application.builders.CompileBuilder;
+import application.operations.FileOperation;
+
+/**
+ * Benchmarks of the file scanning and command building paths.
+ * <p> Each benchmark runs against a synthetic project of each size, with warm up iterations first
+ * so the JIT compiled code is measured, and reports the mean and standard deviation of the measured iterations.
+ * <p> Build it with the project classes and run it from any directory:
+ * <pre>
+ * javac -d bin-bench $(find src benchmark -name '*.java')
+ * java -cp bin-bench application.benchmark.Benchmarks --sizes 100,10000 --fan-out 5 > bench_output.txt
+ * </pre>
+ * <p> Options:
+ * <p> --sizes: the number of source files of each project, by default 100 and 10000, 100000 is supported but slow to generate.
+ * <p> --fan-out: the imports of each class, by default 5.
+ * <p> --warmup and --iterations: the number of warm up and measured iterations, by default 3 and 5.
+ * <p> --filter: only run the benchmarks whose name contains the value.
+ */
+public class Benchmarks {
+
+    // results are stored here so the JIT can't remove the measured calls.
+    private static volatile Object sink;
+
+    private int warmup;
+    private int iterations;
+    private String filter;
+
+    public Benchmarks(int warmup, int iterations, String filter) {
+        this.warmup = warmup;
+        this.iterations = iterations;
+        this.filter = filter;
+    }
+
+    public static void main(String[] args) throws IOException {
+        List<Integer> sizes = new ArrayList<>();
+        for(String s: getOption(args, "--sizes", "100,10000").split(",")) {
+            sizes.add(Integer.parseInt(s.trim()));
+        }
+        int fanOut = Integer.parseInt(getOption(args, "--fan-out", "5"));
+        Benchmarks benchmarks = new Benchmarks(
+                Integer.parseInt(getOption(args, "--warmup", "3")),
+                Integer.parseInt(getOption(args, "--iterations", "5")),
+                getOption(args, "--filter", "")
+        );
+        System.out.printf("%-36s %8s %12s %12s %12s%n", "Benchmark", "Files", "Mean ms/op", "Stddev", "Min ms/op");
+        for(int size: sizes) {
+            ProjectGenerator generator = ProjectGenerator.ofSize(size, fanOut);
+            Path directory = Files.createTempDirectory("javabuild-bench");
+            try {
+                generator.generate(directory);
+                benchmarks.runAll(directory, generator.getFileCount());
+            } finally {
+                delete(directory);
+            }
+        }
+    }
+    /**
+     * Run every benchmark against the generated project.
+     * <p> The paths are resolved against the generated project directory, so the user directory is not changed.
+     */
+    private void runAll(Path directory, int files) {
+        String source = directory.resolve(ProjectGenerator.SOURCE_PATH).toString();
+        String root = directory.resolve(ProjectGenerator.ROOT_PATH).toString();
+        String classPath = directory.resolve(ProjectGenerator.CLASS_PATH).toString();
+        String lib = directory.resolve(ProjectGenerator.LIB_PATH).toString();
+        FileOperation warm = new FileOperation();
+        String imported = "import bench.p0.C0;";
+
+        run("getFiles (cold)", files, () -> new FileOperation().getFiles(source, 0));
+        run("getFiles (indexed)", files, () -> warm.getFiles(source, 0));
+        run("getDirNames (cold)", files, () -> new FileOperation().getDirNames(source, 0));
+        run("getDirNames (indexed)", files, () -> warm.getDirNames(source, 0));
+        // the main class is in the first package, so this is the cost of the search order.
+        run("getFileWithLine", files, () -> warm.getFileWithLine(source, "public static void main", 0));
+        run("getFileWithLine (missing)", files, () -> warm.getFileWithLine(source, "no such line", 0));
+        run("appendDependentFiles", files, () -> {
+            Set<String> dependent = new HashSet<>();
+            warm.appendDependentFiles(dependent, source, imported, "C0");
+            return dependent;
+        });
+        run("getReCompileCommand", files, () -> new CompileBuilder(root, new FileOperation())
+                .getReCompileCommand(source, classPath, "-Werror", "ignore"));
+        run("preparedLibFiles", files, () -> new CompileBuilder(root, new FileOperation()).preparedLibFiles(lib));
+    }
+    /**
+     * Measure a benchmark and print its result line.
+     * @param name - the benchmark name.
+     * @param files - the number of source files of the project.
+     * @param operation - the measured operation.
+     */
+    private void run(String name, int files, Supplier<Object> operation) {
+        if(!name.contains(filter)) return;
+        for(int i=0; i<warmup; ++i) {
+            sink = operation.get();
+        }
+        double[] times = new double[iterations];
+        for(int i=0; i<iterations; ++i) {
+            long start = System.nanoTime();
+            sink = operation.get();
+            times[i] = (System.nanoTime() - start) / 1e6;
+        }
+        double mean = 0;
+        double min = Double.MAX_VALUE;
+        for(double t: times) {
+            mean += t;
+            min = Math.min(min, t);
+        }
+        mean /= times.length;
+        double variance = 0;
+        for(double t: times) {
+            variance += (t - mean) * (t - mean);
+        }
+        double stddev = times.length > 1 ? Math.sqrt(variance / (times.length - 1)) : 0;
+        System.out.printf("%-36s %8d %12.3f %12.3f %12.3f%n", name, files, mean, stddev, min);
+    }
+    private static String getOption(String[] args, String prefix, String defaultValue) {
+        for(int i=0; i<args.length - 1; ++i) {
+            if(args[i].equals(prefix)) return args[i + 1];
+        }
+        return defaultValue;
+    }
+    private static void delete(Path directory) throws IOException {
+        try (Stream<Path> s = Files.walk(directory)) {
+            for(Path p: s.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(p);
+            }
+        }
+    }
+}
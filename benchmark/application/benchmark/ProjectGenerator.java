@@ -0,0 +1,140 @@
+package application.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Create synthetic projects with the layout that JavaBuild expects.
+ * <p> The project has {@code packages} packages with {@code classes} classes each,
+ * every class imports {@code fanOut} classes of other packages.
+ * <p> The class path contains an empty class file for every source file, newer than the sources,
+ * except for the modified ones so the incremental logic has something to find.
+ */
+public class ProjectGenerator {
+
+    public static final String ROOT_PATH = "src";
+    public static final String SOURCE_PATH = "src" + File.separator + "bench";
+    public static final String CLASS_PATH = "bin";
+    public static final String LIB_PATH = "lib";
+
+    private int packages;
+    private int classes;
+    private int fanOut;
+    private int modified;
+    private int libs;
+    private long seed;
+
+    /**
+     * Create a generator.
+     * @param packages - the number of packages.
+     * @param classes - the number of classes of each package.
+     * @param fanOut - the number of imports of each class.
+     * @param modified - the number of source files newer than its class file.
+     * @param libs - the number of .jar files in the lib directory.
+     */
+    public ProjectGenerator(int packages, int classes, int fanOut, int modified, int libs) {
+        this.packages = packages;
+        this.classes = classes;
+        this.fanOut = fanOut;
+        this.modified = modified;
+        this.libs = libs;
+        seed = 42;
+    }
+    /**
+     * Create a generator with a total number of files, using roughly the square root as the number of packages.
+     * @param files - the number of source files.
+     * @param fanOut - the number of imports of each class.
+     * @return the generator.
+     */
+    public static ProjectGenerator ofSize(int files, int fanOut) {
+        int packages = Math.max(1, (int) Math.sqrt(files / 10.0));
+        int classes = Math.max(1, files / packages);
+        return new ProjectGenerator(packages, classes, fanOut, Math.max(1, files / 1000), Math.max(1, files / 100));
+    }
+
+    /**
+     * Get the number of source files that the generator creates.
+     * @return the number of files.
+     */
+    public int getFileCount() {
+        return packages * classes;
+    }
+    /**
+     * Write the project into the given directory.
+     * @param directory - an empty directory.
+     */
+    public void generate(Path directory) throws IOException {
+        Random random = new Random(seed);
+        Path sources = directory.resolve(SOURCE_PATH);
+        Path binaries = directory.resolve(CLASS_PATH).resolve("bench");
+        FileTime old = FileTime.fromMillis(System.currentTimeMillis() - 60_000);
+        FileTime now = FileTime.fromMillis(System.currentTimeMillis());
+        List<Path> sourceFiles = new ArrayList<>();
+        for(int p=0; p<packages; ++p) {
+            Path packageDirectory = Files.createDirectories(sources.resolve("p" + p));
+            Path classDirectory = Files.createDirectories(binaries.resolve("p" + p));
+            for(int c=0; c<classes; ++c) {
+                Path source = packageDirectory.resolve("C" + c + ".java");
+                Files.writeString(source, getSource(p, c, random), StandardCharsets.UTF_8);
+                Files.setLastModifiedTime(source, old);
+                Path classFile = classDirectory.resolve("C" + c + ".class");
+                Files.write(classFile, new byte[0]);
+                Files.setLastModifiedTime(classFile, now);
+                sourceFiles.add(source);
+            }
+        }
+        for(int i=0; i<modified && i<sourceFiles.size(); ++i) {
+            Path source = sourceFiles.get(random.nextInt(sourceFiles.size()));
+            Files.setLastModifiedTime(source, FileTime.fromMillis(now.toMillis() + 60_000));
+        }
+        Path lib = Files.createDirectories(directory.resolve(LIB_PATH));
+        for(int i=0; i<libs; ++i) {
+            try (ZipOutputStream jar = new ZipOutputStream(Files.newOutputStream(lib.resolve("dep" + i + ".jar")))) {
+                jar.putNextEntry(new ZipEntry("dep" + i + "/"));
+                jar.closeEntry();
+            }
+        }
+        Files.writeString(directory.resolve("config.txt"), String.format(
+                    "Root-Path: %s%nSource-Path: %s%nClass-Path: %s%nMain-Class: bench.p0.C0%nTest-Path: %nTest-Class: %n" +
+                    "Libraries: include%nCompile-Flags: -Werror%n", ROOT_PATH, SOURCE_PATH, CLASS_PATH), StandardCharsets.UTF_8);
+    }
+    private String getSource(int p, int c, Random random) {
+        StringBuilder source = new StringBuilder();
+        source.append(String.format("package bench.p%s;%n%n", p));
+        List<String> imports = new ArrayList<>();
+        // the simple names must be unique to import them, including the class itself.
+        Set<Integer> simpleNames = new HashSet<>(Set.of(c));
+        for(int i=0; i<fanOut && packages > 1; ++i) {
+            int other = random.nextInt(packages);
+            if(other == p) other = (other + 1) % packages;
+            int imported = random.nextInt(classes);
+            if(simpleNames.add(imported)) imports.add(String.format("bench.p%s.C%s", other, imported));
+        }
+        for(String i: imports) {
+            source.append(String.format("import %s;%n", i));
+        }
+        source.append(String.format("%npublic class C%s {%n", c));
+        if(p == 0 && c == 0) {
+            source.append(String.format("    public static void main(String[] args) {%n    }%n"));
+        }
+        for(String i: imports) {
+            String simpleName = i.substring(i.lastIndexOf('.') + 1);
+            source.append(String.format("    public %s use%s() {%n        return null;%n    }%n", simpleName, simpleName));
+        }
+        source.append(String.format("}%n"));
+        return source.toString();
+    }
+}
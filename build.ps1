@@ -1,4 +1,4 @@
-$SourceFiles = "src\application\*.java src\application\builders\*.java src\application\models\*.java src\application\operations\*.java src\application\utils\*.java"
+$SourceFiles = "src\application\*.java src\application\builders\*.java src\application\models\*.java src\application\operations\*.java src\application\utils\*.java src\application\agent\*.java"
 $Compile = "javac -d bin -Werror -g $SourceFiles"
 $CreateJar = "jar -cfm JavaBuild.jar Manifesto.txt -C .\bin\ ."
 $Run = "java -jar JavaBuild.jar"
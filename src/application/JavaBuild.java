@@ -1,29 +1,98 @@
 package application;
 
+import application.operations.DaemonOperation;
 import application.operations.Operation;
+import application.operations.TaskOperation;
+import application.utils.CommandUtils;
+import application.utils.ProfileUtils;
+
+import java.util.List;
 
 class JavaBuild {
     public static void main(String[] args) {
+        List<String> options = List.of(args);
+        DaemonOperation daemon = new DaemonOperation();
+        if(options.contains("--daemon")) {
+            if(new CommandUtils(args).showHelpOnDaemon()) return;
+            if(options.contains("--stop")) {
+                daemon.stop();
+                return;
+            }
+            Operation op = new Operation(args);
+            daemon.start(a -> {
+                op.setArgs(a);
+                op.startUpConfig();
+                return execute(op, a);
+            });
+            return;
+        }
+        // the watch and hot run operations never end so they can't be sent to the daemon.
+        boolean useDaemon = !options.contains("--no-daemon") && !options.contains("--watch") && !options.contains("--hot");
+        if(useDaemon) {
+            int status = daemon.sendArgs(args);
+            if(status == 0) return;
+            if(status != DaemonOperation.NOT_RUNNING) System.exit(status);
+        }
+
         Operation op = new Operation(args);
         op.startUpConfig();
+        if(!execute(op, args)) System.exit(1);
+    }
+    /**
+     * Execute the build steps given in the arguments.
+     * <p> Each step is a task that waits for the steps it needs, the independent ones run at the same time.
+     * <p> When a step fails the steps that need it are skipped.
+     * @return true if every step succeed, false otherwise.
+     */
+    private static boolean execute(Operation op, String[] args) {
+        List<String> options = List.of(args);
+        int profile = options.indexOf("--profile");
+        if(profile != -1) ProfileUtils.enable();
+        // with --h every step only shows its help in order, so they don't wait for each other.
+        boolean help = options.contains("--h");
+        TaskOperation tasks = new TaskOperation(help ? 1 : op.getJobs());
         for(String a: args) {
             switch(a) {
                 case "--compile":
-                    op.compileOperation();
+                    tasks.addTask("compile", op::compileOperation, after(help, "add"));
                     break;
                 case "--run":
-                    op.runOperation();
+                    // the shared archive is created for the .jar file, so the run waits for it.
+                    tasks.addTask("run", op::runOperation, options.contains("--cds") ?
+                            after(help, "compile", "jar") :
+                            after(help, "compile"));
+                    break;
+                case "--test":
+                    tasks.addTask("test", op::testOperation, after(help, "compile"));
                     break;
                 case "--jar":
-                    op.createJarOperation();
+                    tasks.addTask("extract", op::extractLibOperation, after(help, "add"));
+                    tasks.addTask("jar", op::createJarOperation, after(help, "compile", "extract"));
+                    break;
+                case "--image":
+                    tasks.addTask("image", op::imageOperation, after(help, "jar"));
                     break;
                 case "--build":
-                    op.removeOperation();
-                    op.compileOperation();
-                    op.createJarOperation();
+                    tasks.addTask("remove", op::removeOperation);
+                    tasks.addTask("compile", op::compileOperation, after(help, "add", "remove"));
+                    tasks.addTask("extract", op::extractLibOperation, after(help, "add"));
+                    tasks.addTask("jar", op::createJarOperation, after(help, "compile", "extract"));
+                    break;
+                case "--watch":
+                    // the watch operation never ends so it waits for every other step.
+                    tasks.addTask("watch", () -> {
+                        op.watchOperation();
+                        return true;
+                    }, after(help, tasks.getTaskNames().toArray(new String[0])));
+                    break;
+                case "--cache-stats":
+                    tasks.addTask("cache-stats", () -> {
+                        op.cacheStatsOperation();
+                        return true;
+                    });
                     break;
                 case "--add":
-                    op.addDependency();
+                    tasks.addTask("add", op::addDependency);
                     break;
                 case "--h":
                     System.console().printf("%s%n", "Use --h for help");
@@ -32,5 +101,16 @@ class JavaBuild {
                     break;
             }
         }
+        boolean success = tasks.executeAll();
+        if(profile != -1) {
+            ProfileUtils.disable();
+            ProfileUtils.showReport();
+            // the trace file is the optional value after --profile.
+            if(profile + 1 < args.length && !args[profile + 1].startsWith("-")) ProfileUtils.writeTrace(args[profile + 1]);
+        }
+        return success;
+    }
+    private static String[] after(boolean help, String... tasks) {
+        return help ? new String[0] : tasks;
     }
 }
@@ -0,0 +1,94 @@
+package application.agent;
+
+import java.io.IOException;
+
+import java.lang.instrument.ClassDefinition;
+import java.lang.instrument.Instrumentation;
+import java.lang.instrument.UnmodifiableClassException;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Java agent that redefines the classes of the running program when JavaBuild asks for it.
+ * <p> JavaBuild writes the reload file with a line {@code name\tclassFile} for each class to redefine,
+ * the agent reads it when its modified and answers in the status file with ok or the error.
+ * <p> The agent is copied alone into its own .jar file, so it must not use other JavaBuild classes.
+ */
+public final class HotReloadAgent {
+
+    public static final String OK_STATUS = "ok";
+    private static final long POLL_MILLIS = 200;
+
+    private HotReloadAgent() {
+    }
+
+    /**
+     * Start the thread that waits for the reload requests.
+     * @param args - the reload file, the status file is the same file with the .status extension.
+     * @param instrumentation - the instrumentation of the running program.
+     */
+    public static void premain(String args, Instrumentation instrumentation) {
+        Path reloadFile = Paths.get(args);
+        Path statusFile = reloadFile.resolveSibling(reloadFile.getFileName() + ".status");
+        Thread watcher = new Thread(() -> {
+            long lastModified = reloadFile.toFile().lastModified();
+            while(!Thread.currentThread().isInterrupted()) {
+                try {
+                    Thread.sleep(POLL_MILLIS);
+                } catch(InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                long modified = reloadFile.toFile().lastModified();
+                if(modified == lastModified) continue;
+                lastModified = modified;
+                writeStatus(statusFile, reload(reloadFile, instrumentation));
+            }
+        }, "javabuild-hot-reload");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+    /**
+     * Redefine the loaded classes listed in the reload file.
+     * <p> The classes that are not loaded yet don't need it, they are loaded from the new class files.
+     * @return the status to write.
+     */
+    private static String reload(Path reloadFile, Instrumentation instrumentation) {
+        try {
+            Map<String, Path> classFiles = new HashMap<>();
+            for(String line: Files.readAllLines(reloadFile, StandardCharsets.UTF_8)) {
+                String[] parts = line.split("\t", 2);
+                if(parts.length == 2) classFiles.put(parts[0], Paths.get(parts[1]));
+            }
+            List<ClassDefinition> definitions = new ArrayList<>();
+            for(Class<?> c: instrumentation.getAllLoadedClasses()) {
+                Path classFile = classFiles.get(c.getName());
+                if(classFile != null && instrumentation.isModifiableClass(c)) {
+                    definitions.add(new ClassDefinition(c, Files.readAllBytes(classFile)));
+                }
+            }
+            instrumentation.redefineClasses(definitions.toArray(new ClassDefinition[0]));
+            return String.format("%s %s", OK_STATUS, definitions.size());
+        } catch(IOException | ReflectiveOperationException | UnmodifiableClassException | RuntimeException | LinkageError e) {
+            return String.format("error %s", e);
+        }
+    }
+    private static void writeStatus(Path statusFile, String status) {
+        try {
+            Path temporal = statusFile.resolveSibling(statusFile.getFileName() + ".tmp");
+            Files.writeString(temporal, status, StandardCharsets.UTF_8);
+            Files.move(temporal, statusFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch(IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
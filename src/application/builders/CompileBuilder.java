@@ -5,6 +5,7 @@ import java.io.File;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 
+import java.util.Collection;
 import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
@@ -13,6 +14,8 @@ import java.util.stream.Collectors;
 
 import application.models.CommandModel;
 import application.operations.FileOperation;
+import application.operations.GraphOperation;
+import application.operations.StateOperation;
 
 public record CompileBuilder(String root, FileOperation fileOperation) implements CommandModel {
     public static final String DEFAULT_LIB_PATH = "lib";
@@ -43,8 +46,7 @@ public record CompileBuilder(String root, FileOperation fileOperation) implement
         command.append(String.format("%s\" ", classPath));
 
         // append compile flags
-        if(compileFlags.isBlank() || !compileFlags.startsWith("-")) compileFlags = "-Werror";
-        command.append(String.format("%s ", compileFlags));
+        command.append(String.format("%s ", prepareCompileFlags(compileFlags)));
 
         if(!includeLib.equals("ignore") && !preparedLibFiles(DEFAULT_LIB_PATH).isBlank()) {
             command.append(String.format("-cp '%s' ", preparedLibFiles(DEFAULT_LIB_PATH)));
@@ -65,32 +67,151 @@ public record CompileBuilder(String root, FileOperation fileOperation) implement
      * @return the recompile command.
      */
     public String getReCompileCommand(String sourcePath, String classPath, String compileFlags, String includeLib) {
+        return getReCompileCommand(sourcePath, classPath, compileFlags, includeLib, getReCompileFiles(sourcePath, classPath));
+    }
+    /**
+     * Get the compile command of the given re-compile files.
+     * @param sourcePath - the path where the source files are.
+     * @param classPath - the path where the class files are.
+     * @param compileFlags - the compile flags to pass to the compile operation.
+     * @param includeLib - to include or not the lib dependencies.
+     * @param files - the .java files to re-compile.
+     * @return the recompile command.
+     */
+    public String getReCompileCommand(String sourcePath, String classPath, String compileFlags, String includeLib,
+            Collection<String> files) {
+        return getReCompileCommand(sourcePath, classPath, compileFlags, includeLib, files, "");
+    }
+    /**
+     * Get the compile command of the given re-compile files using other class path entries.
+     * @param sourcePath - the path where the source files are.
+     * @param classPath - the path where the class files are.
+     * @param compileFlags - the compile flags to pass to the compile operation.
+     * @param includeLib - to include or not the lib dependencies.
+     * @param files - the .java files to re-compile.
+     * @param assets - other class path entries separated by ;, empty if none.
+     * @return the recompile command.
+     */
+    public String getReCompileCommand(String sourcePath, String classPath, String compileFlags, String includeLib,
+            Collection<String> files, String assets) {
         StringBuilder command = new StringBuilder("javac -d \"");
         // append target or class-path
         if(classPath.isBlank()) return "";
         command.append(String.format("%s\" ", classPath));
 
         // append compile flags
-        if(compileFlags.isBlank() || !compileFlags.startsWith("-")) compileFlags = "-Werror";
-        command.append(String.format("%s ", compileFlags));
+        command.append(String.format("%s ", prepareCompileFlags(compileFlags)));
 
         // append assets
         command.append(String.format("-cp '%s", classPath));
+        if(!assets.isBlank()) command.append(String.format(";%s", assets));
         if(!includeLib.equals("ignore") && !preparedLibFiles(DEFAULT_LIB_PATH).isBlank()) {
             command.append(String.format(";%s", preparedLibFiles(DEFAULT_LIB_PATH)));
         }
         command.append("' ");
 
         // append re-compile files
-        List<Path> paths = fileOperation.getFiles(sourcePath, 0);
+        Set<String> dependent = new HashSet<>();
+        for(String f: files) {
+            dependent.add(String.format("\"%s\"", f));
+        }
+        if(dependent.isEmpty()) return "";
+        command.append(dependent
+                .stream()
+                .sorted(Comparator.reverseOrder())
+                .collect(Collectors.joining(" "))
+        );
+
+        return command.toString();
+    }
+    /**
+     * Get the path where the packages of a source tree start.
+     * <p> A source tree inside the root path, like src/test, has its packages starting at the root path,
+     * otherwise the source tree is the root of its packages, like test with test/app/HelperTest.java.
+     * @param sourcePath - the path where the source files are.
+     * @return the root path or the source path.
+     */
+    public String getPackageRoot(String sourcePath) {
+        Path rootPath = Paths.get(root).normalize();
+        Path source = Paths.get(sourcePath).normalize();
+        if(rootPath.toString().isEmpty() || source.startsWith(rootPath)) return root;
+        return source.toString();
+    }
+    /**
+     * Get the source files to compile when the class path is not created.
+     * @param sourcePath - the path where the source files are.
+     * @return the list of .java files.
+     */
+    public List<String> getSourceFiles(String sourcePath) {
+        return fileOperation.getFiles(sourcePath, 0, FILE_EXTENSION)
+            .stream()
+            .map(p -> p.normalize().toString())
+            .toList();
+    }
+    /**
+     * Get the modified source files and the files that depend on them.
+     * @param sourcePath - the path where the source files are.
+     * @param classPath - the path where the class files are.
+     * @return the set of .java files to re-compile.
+     */
+    public Set<String> getReCompileFiles(String sourcePath, String classPath) {
+        return getReCompileFiles(sourcePath, classPath, new StateOperation(classPath).load());
+    }
+    /**
+     * Get the modified source files and the files that depend on them.
+     * <p> The dependent files are taken from the dependency graph stored in the class path.
+     * @param sourcePath - the path where the source files are.
+     * @param classPath - the path where the class files are.
+     * @param state - the build state of the class path.
+     * @return the set of .java files to re-compile.
+     */
+    public Set<String> getReCompileFiles(String sourcePath, String classPath, StateOperation state) {
+        Set<String> dependent = getModifiedFiles(sourcePath, classPath, state);
+        GraphOperation graph = new GraphOperation(classPath, root);
+        if(graph.exists() && !dependent.isEmpty()) {
+            dependent.addAll(graph.load().getDependentFiles(dependent));
+        }
+        return dependent;
+    }
+    /**
+     * Get the modified source files.
+     * <p> A file is modified when its content hash is different from the build state.
+     * <p> If there is no build state the last modified time of the .java and .class files is compared.
+     * <p> If there is no dependency graph the source files are scanned for their import declarations
+     * and the files that import the modified ones are included.
+     * @param sourcePath - the path where the source files are.
+     * @param classPath - the path where the class files are.
+     * @param state - the build state of the class path.
+     * @return the set of modified .java files.
+     */
+    public Set<String> getModifiedFiles(String sourcePath, String classPath, StateOperation state) {
+        return getModifiedFiles(sourcePath, classPath, state, fileOperation.getFiles(sourcePath, 0, FILE_EXTENSION));
+    }
+    /**
+     * Get the modified source files of the given candidates.
+     * <p> Used when the candidates are already known like in the watch operation.
+     * @param sourcePath - the path where the source files are.
+     * @param classPath - the path where the class files are.
+     * @param state - the build state of the class path.
+     * @param paths - the .java files that might be modified.
+     * @return the set of modified .java files.
+     */
+    public Set<String> getModifiedFiles(String sourcePath, String classPath, StateOperation state, List<Path> paths) {
+        boolean useGraph = new GraphOperation(classPath, root).exists();
+        boolean useState = state.exists();
+        Set<String> modified = useState ? state.getModifiedFiles(paths) : Set.of();
         Set<String> dependent = new HashSet<>();
         for(Path p: paths) {
             String comparator = p.normalize().toString()
                 .replace(root + File.separator, classPath + File.separator)
                 .replace(FILE_EXTENSION, ".class");
             Path second = Paths.get(comparator);
-            if(fileOperation().isNewerThan(p, second)) {
-                dependent.add(String.format("\"%s\"", p.normalize().toString()));
+            boolean isModified = useState ?
+                modified.contains(p.normalize().toString()) || !second.toFile().exists() :
+                fileOperation().isNewerThan(p, second);
+            if(isModified) {
+                dependent.add(p.normalize().toString());
+                if(useGraph) continue;
                 String packageName = "import " + p.normalize().toString()
                     .replace(root + File.separator, "")
                     .replace(File.separator, ".")
@@ -101,13 +222,32 @@ public record CompileBuilder(String root, FileOperation fileOperation) implement
                 );
             }
         }
-        if(dependent.isEmpty()) return "";
-        command.append(dependent
-                .stream()
-                .sorted(Comparator.reverseOrder())
-                .collect(Collectors.joining(" "))
-        );
-
-        return command.toString();
+        return dependent;
+    }
+    /**
+     * Get the class path entries used to resolve the classes during compilation.
+     * @param classPath - the path where the class files are, empty to exclude it.
+     * @param includeLib - to include or not the lib dependencies.
+     * @return the entries separated by ;.
+     */
+    public String getAssets(String classPath, String includeLib) {
+        StringBuilder assets = new StringBuilder(classPath);
+        if(!includeLib.equals("ignore")) {
+            String libFiles = preparedLibFiles(DEFAULT_LIB_PATH);
+            if(!libFiles.isBlank()) {
+                if(assets.length() > 0) assets.append(";");
+                assets.append(libFiles);
+            }
+        }
+        return assets.toString();
+    }
+    /**
+     * Give the compile flags the default value when they are not valid.
+     * @param compileFlags - the flags to pass to the compile operation.
+     * @return the compile flags or -Werror when they don't start with -.
+     */
+    public String prepareCompileFlags(String compileFlags) {
+        if(compileFlags == null || compileFlags.isBlank() || !compileFlags.startsWith("-")) return "-Werror";
+        return compileFlags;
     }
 }
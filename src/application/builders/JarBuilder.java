@@ -5,6 +5,10 @@ import application.models.CommandModel;
 
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
 public record JarBuilder(String root, FileOperation fileOperation)  implements CommandModel {
     private static final String DEFAULT_EXTRACT_PATH = "extractionFiles";
     private static final String DEFAULT_LIB_PATH = "lib";
@@ -37,14 +41,14 @@ public record JarBuilder(String root, FileOperation fileOperation)  implements C
         command.append("f");
 
         // append asset format m for manifesto or e for main class or empty when non are present.
-        String assetFormat = getJarAssetFormat(command, sourcePath);
+        String assetFormat = getJarAssetFormat(command, sourcePath, classPath);
 
         // assign .jar file name
         command.append(String.format("%s.jar ", getProjectName()));
         // append assets
         switch (assetFormat) {
             case "m " -> command.append("Manifesto.txt");
-            case "e " -> command.append(getMainClass(sourcePath));
+            case "e " -> command.append(getMainClass(sourcePath, classPath));
             default -> command.append("");
         }
 
@@ -69,6 +73,28 @@ public record JarBuilder(String root, FileOperation fileOperation)  implements C
 
         return command.toString();
     }
+    /**
+     * Get the lib dependencies whose entries are merged into the .jar file.
+     * @param libPath - the path where the lib dependencies are.
+     * @param includeLib - to include or not the lib dependencies.
+     * @return the sorted list of .jar files or empty list if they are not included.
+     */
+    public List<String> getLibJars(String libPath, String includeLib) {
+        List<String> libJars = new ArrayList<>();
+        if(!includeLib.equals("include")) return libJars;
+        for(String l: preparedLibFiles(libPath).split(";")) {
+            if(!l.isBlank()) libJars.add(l);
+        }
+        Collections.sort(libJars);
+        return libJars;
+    }
+    /**
+     * Get the manifest file of the project.
+     * @return the manifest file or empty string if its not present.
+     */
+    public String getManifestFile() {
+        return haveManifesto() ? "Manifesto.txt" : "";
+    }
     /**
      * Append the corresponding format for the .jar build.
      * <p> append m when there is a manifesto file present.
@@ -76,11 +102,11 @@ public record JarBuilder(String root, FileOperation fileOperation)  implements C
      * <p> if non of those are present append and empty string.
      * @return the .jar format.
      */
-    public String getJarAssetFormat(StringBuilder command, String sourcePath) {
+    public String getJarAssetFormat(StringBuilder command, String sourcePath, String classPath) {
         String name = " ";
         if(haveManifesto()) {
             name = "m ";
-        } else if(!getMainClass(sourcePath).isBlank()) {
+        } else if(!getMainClass(sourcePath, classPath).isBlank()) {
             name = "e ";
         }
         command.append(name);
@@ -40,7 +40,7 @@ public record RunBuilder(String root, FileOperation fileOperation) implements Co
         command.append("' ");
 
         // append main class.
-        command.append(getMainClass(sourcePath));
+        command.append(getMainClass(sourcePath, classPath));
 
         // append flags to run.
         if(!flags.isBlank()) command.append(String.format(" %s", flags));
@@ -71,7 +71,7 @@ public record RunBuilder(String root, FileOperation fileOperation) implements Co
         command.append("' ");
 
         // append main class.
-        if(mainClass.isBlank()) command.append(getMainClass(sourcePath));
+        if(mainClass.isBlank()) command.append(getMainClass(sourcePath, classPath));
         command.append(mainClass);
 
         if(!flags.isBlank()) command.append(String.format(" %s", flags));
@@ -79,5 +79,45 @@ public record RunBuilder(String root, FileOperation fileOperation) implements Co
         return command.toString();
 
     }
+    /**
+     * Get the run command with a JVM option like a java agent or a shared archive.
+     * @param command - the run command.
+     * @param javaOption - the option to place before the class path.
+     * @return the command with the option or the same command if there is no option.
+     */
+    public String getCommandWithOption(String command, String javaOption) {
+        if(command.isBlank() || javaOption.isBlank() || !command.startsWith("java ")) return command;
+        // concatenated, since the option paths may have \ or $ that a regex replacement would change.
+        return "java " + javaOption + command.substring("java".length());
+    }
+    /**
+     * Get the command to run the .jar file of the project.
+     * @param jarFile - the .jar file with the main class in its manifest.
+     * @param javaOption - the JVM option to use, empty if none.
+     * @param flags - the run flags.
+     * @return the command.
+     */
+    public String getJarCommand(String jarFile, String javaOption, String flags) {
+        StringBuilder command = new StringBuilder("java");
+        if(!javaOption.isBlank()) command.append(String.format(" %s", javaOption));
+        command.append(String.format(" -jar '%s'", jarFile));
+        if(!flags.isBlank()) command.append(String.format(" %s", flags));
+        return command.toString();
+    }
+    /**
+     * Get the command to run a main class of the .jar file of the project.
+     * @param jarFile - the .jar file used as class path.
+     * @param javaOption - the JVM option to use, empty if none.
+     * @param mainClass - the main class to run instead of the one in the manifest.
+     * @param flags - the run flags.
+     * @return the command.
+     */
+    public String getJarCommand(String jarFile, String javaOption, String mainClass, String flags) {
+        StringBuilder command = new StringBuilder("java");
+        if(!javaOption.isBlank()) command.append(String.format(" %s", javaOption));
+        command.append(String.format(" -cp '%s' %s", jarFile, mainClass));
+        if(!flags.isBlank()) command.append(String.format(" %s", flags));
+        return command.toString();
+    }
 
 }
@@ -0,0 +1,61 @@
+package application.models;
+
+import java.nio.file.Path;
+
+/**
+ * The coordinates of an artifact of a Maven repository.
+ * @param groupId - the group like org.slf4j.
+ * @param artifactId - the artifact like slf4j-api.
+ * @param version - the version like 2.0.9.
+ */
+public record ArtifactModel(String groupId, String artifactId, String version) {
+
+    /**
+     * Parse the group:artifact:version coordinates.
+     * @param coordinates - the coordinates to parse.
+     * @return the artifact or null if the coordinates don't have 3 non blank parts.
+     */
+    public static ArtifactModel parse(String coordinates) {
+        String[] parts = coordinates.trim().split(":");
+        if(parts.length != 3) return null;
+        for(String p: parts) {
+            if(p.isBlank()) return null;
+        }
+        return new ArtifactModel(parts[0], parts[1], parts[2]);
+    }
+    /**
+     * Get the key used to find version conflicts.
+     * @return the group:artifact key.
+     */
+    public String getKey() {
+        return String.format("%s:%s", groupId, artifactId);
+    }
+    /**
+     * Get the coordinates of the artifact.
+     * @return the group:artifact:version coordinates.
+     */
+    public String getCoordinates() {
+        return String.format("%s:%s:%s", groupId, artifactId, version);
+    }
+    /**
+     * Get the file name of the artifact.
+     * @param extension - the file extension like .jar or .pom.
+     * @return the artifact-version file name.
+     */
+    public String getFileName(String extension) {
+        return String.format("%s-%s%s", artifactId, version, extension);
+    }
+    /**
+     * Get the file of the artifact in the Maven repository layout.
+     * @param repository - the root directory of the repository.
+     * @param extension - the file extension like .jar or .pom.
+     * @return the group/artifact/version/artifact-version file.
+     */
+    public Path getFile(Path repository, String extension) {
+        return repository
+            .resolve(groupId.replace(".", "/"))
+            .resolve(artifactId)
+            .resolve(version)
+            .resolve(getFileName(extension));
+    }
+}
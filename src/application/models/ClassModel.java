@@ -0,0 +1,42 @@
+package application.models;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The information read from a .class file.
+ * @param name - the internal name of the class like application/JavaBuild.
+ * @param superName - the internal name of the super class, empty for java/lang/Object.
+ * @param interfaces - the internal names of the implemented interfaces.
+ * @param sourceFile - the name of the .java file that declares the class, empty if not present.
+ * @param dependencies - the internal names of every class referenced by the constant pool.
+ * @param abi - the hash of the non private declarations of the class.
+ * @param constants - the hash of the compile time constants of the class.
+ */
+public record ClassModel(String name, String superName, List<String> interfaces, String sourceFile, Set<String> dependencies,
+        String abi, String constants) {
+
+    /**
+     * Get the package of the class in its internal form like application/operations.
+     * @return the package or empty string for the default package.
+     */
+    public String getPackageName() {
+        int index = name.lastIndexOf('/');
+        return index == -1 ? "" : name.substring(0, index);
+    }
+    /**
+     * Get the relative path of the .java file that declares the class.
+     * <p> When the source file attribute is missing the top level class name is used.
+     * @return the relative path of the source file like application/JavaBuild.java.
+     */
+    public String getSourcePath() {
+        String file = sourceFile;
+        if(file.isBlank()) {
+            String simple = name.substring(name.lastIndexOf('/') + 1);
+            int nested = simple.indexOf('$');
+            file = (nested == -1 ? simple : simple.substring(0, nested)) + ".java";
+        }
+        String packageName = getPackageName();
+        return packageName.isEmpty() ? file : packageName + "/" + file;
+    }
+}
@@ -4,6 +4,8 @@ import java.io.IOException;
 import java.nio.file.Path;
 
 import application.operations.FileOperation;
+import application.operations.MainClassOperation;
+import application.utils.ProfileUtils;
 
 public interface CommandModel {
     public FileOperation getFileOperation();
@@ -25,17 +27,12 @@ public interface CommandModel {
     }
     /**
      * List the lib .jar dependencies separated by ;.
+     * <p> The list is taken from the lib catalog, which only reads the new or modified .jar files.
      * @param pathURI - the path where the dependencies are.
      * @return a string with the .jar dependencies.
      */
     public default String preparedLibFiles(String pathURI) {
-        StringBuilder prepared = new StringBuilder();
-        for(Path p: getFileOperation().getFiles(pathURI, 3)) {
-            if(p.getFileName().toString().contains(".jar")) {
-                prepared.append(String.format("%s;", p.normalize().toString()));
-            }
-        }
-        return prepared.toString();
+        return getFileOperation().getCatalog(pathURI).getClassPath();
     }
     /**
      * get main class from source path.
@@ -44,7 +41,8 @@ public interface CommandModel {
      */
     public default String getMainClass(String pathURI) {
         String mainDeclaration = "public static void main";
-        String mainClass = getFileOperation().getFileWithLine(pathURI, mainDeclaration, 2);
+        String mainClass = ProfileUtils.measure("main-class",
+                () -> getFileOperation().getFileWithLine(pathURI, mainDeclaration, 2));
         if(!mainClass.isBlank()) {
             return mainClass
                 .replace(getRoot() + File.separator, "")
@@ -53,6 +51,17 @@ public interface CommandModel {
         }
         return "";
     }
+    /**
+     * Get main class from the class files of the source path, or from its source files when they are not compiled.
+     * <p> The main class is stored in the build state and reused while the file where it was found doesn't change.
+     * @param sourcePath - the path of the source files.
+     * @param classPath - the path of the class files.
+     * @return the main class package name.
+     */
+    public default String getMainClass(String sourcePath, String classPath) {
+        return ProfileUtils.measure("main-class",
+                () -> new MainClassOperation(getRoot(), classPath, getFileOperation()).find(sourcePath));
+    }
     /**
      * Get the project name to use as a replace for file name where its needed.
      * <p> The project name also is the same name of the main class.
@@ -0,0 +1,11 @@
+package application.models;
+
+/**
+ * A source tree to compile into its own class path.
+ * @param sourcePath - the path where the source files are.
+ * @param classPath - the path where the class files are placed.
+ * @param assets - other class path entries separated by ; needed to compile the source files, empty if none.
+ * @param root - the path where the packages of the source files start.
+ */
+public record CompileTargetModel(String sourcePath, String classPath, String assets, String root) {
+}
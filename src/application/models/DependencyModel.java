@@ -0,0 +1,14 @@
+package application.models;
+
+import java.util.Set;
+
+/**
+ * A dependency declared in a pom file, with its properties already replaced.
+ * @param artifact - the coordinates of the dependency, the version may be a range.
+ * @param scope - the scope like compile, runtime or test.
+ * @param type - the type like jar or pom.
+ * @param optional - true if the dependency is optional.
+ * @param exclusions - the group:artifact keys excluded from its transitive dependencies, * is allowed for both.
+ */
+public record DependencyModel(ArtifactModel artifact, String scope, String type, boolean optional, Set<String> exclusions) {
+}
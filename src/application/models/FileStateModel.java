@@ -0,0 +1,30 @@
+package application.models;
+
+import java.util.Arrays;
+
+/**
+ * The recorded state of a source file at the time of its last compilation.
+ * @param size - the size of the file in bytes.
+ * @param modified - the last modified time of the file in milliseconds.
+ * @param hash - the content hash of the file.
+ */
+public record FileStateModel(long size, long modified, byte[] hash) {
+
+    /**
+     * Find if the size and last modified time are the same as the recorded ones.
+     * @param size - the current size of the file.
+     * @param modified - the current last modified time of the file.
+     * @return true if both are equal, false otherwise.
+     */
+    public boolean hasSameAttributes(long size, long modified) {
+        return this.size == size && this.modified == modified;
+    }
+    /**
+     * Find if the content hash is the same as the recorded one.
+     * @param other - the current content hash of the file.
+     * @return true if both are equal, false otherwise.
+     */
+    public boolean hasSameHash(byte[] other) {
+        return Arrays.equals(hash, other);
+    }
+}
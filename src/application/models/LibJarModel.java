@@ -0,0 +1,30 @@
+package application.models;
+
+import java.util.Set;
+
+/**
+ * The catalog information of a lib .jar dependency.
+ * @param path - the normalized path of the .jar file.
+ * @param size - the size of the file in bytes.
+ * @param modified - the last modified time of the file in milliseconds.
+ * @param hash - the hexadecimal content hash of the file.
+ * @param entries - the number of entries of the .jar file.
+ * @param moduleName - the name of the module declared by module-info.class or Automatic-Module-Name, empty if not present.
+ * @param multiRelease - true if the manifest has Multi-Release: true.
+ * @param processor - true if it declares annotation processors, which the compiler finds in the class path.
+ * @param packages - the packages of its classes in the internal form like org/slf4j.
+ * @param references - the packages of other .jar files or modules that its classes reference, without the java packages.
+ */
+public record LibJarModel(String path, long size, long modified, String hash, int entries, String moduleName,
+        boolean multiRelease, boolean processor, Set<String> packages, Set<String> references) {
+
+    /**
+     * Find if the size and last modified time are the same as the recorded ones.
+     * @param size - the current size of the file.
+     * @param modified - the current last modified time of the file.
+     * @return true if both are equal, false otherwise.
+     */
+    public boolean hasSameAttributes(long size, long modified) {
+        return this.size == size && this.modified == modified;
+    }
+}
@@ -0,0 +1,15 @@
+package application.models;
+
+/**
+ * The measures of a completed build phase.
+ * @param name - the phase name.
+ * @param depth - the number of phases that contain this one in the same thread.
+ * @param thread - the sequential id of the thread that executed the phase.
+ * @param start - the start time in nanoseconds since the profile started.
+ * @param wall - the elapsed time in nanoseconds.
+ * @param cpu - the cpu time in nanoseconds of the process during the phase.
+ * @param files - the number of files touched by the phase.
+ * @param bytes - the number of bytes read by the phase.
+ */
+public record PhaseModel(String name, int depth, long thread, long start, long wall, long cpu, long files, long bytes) {
+}
@@ -0,0 +1,16 @@
+package application.models;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The effective content of a pom file after merging its parents.
+ * @param artifact - the coordinates of the pom.
+ * @param packaging - the packaging like jar or pom.
+ * @param properties - the properties used to replace the ${name} values.
+ * @param management - the managed dependencies by its group:artifact key.
+ * @param dependencies - the declared dependencies.
+ */
+public record PomModel(ArtifactModel artifact, String packaging, Map<String, String> properties,
+        Map<String, DependencyModel> management, List<DependencyModel> dependencies) {
+}
@@ -0,0 +1,27 @@
+package application.models;
+
+/**
+ * The result of a finished child process.
+ * @param command - the executed command.
+ * @param exitCode - the exit code of the process, -1 if it couldn't be started or was interrupted.
+ * @param elapsed - the elapsed time in nanoseconds since the process started.
+ * @param output - the last captured bytes of the standard output.
+ * @param error - the last captured bytes of the standard error.
+ */
+public record ProcessResultModel(String command, int exitCode, long elapsed, String output, String error) {
+
+    /**
+     * Find if the process exit without errors.
+     * @return true if the exit code is 0, false otherwise.
+     */
+    public boolean isSuccess() {
+        return exitCode == 0;
+    }
+    /**
+     * Get the elapsed time in milliseconds.
+     * @return the elapsed milliseconds.
+     */
+    public long elapsedMillis() {
+        return elapsed / 1_000_000;
+    }
+}
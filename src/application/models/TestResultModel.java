@@ -0,0 +1,10 @@
+package application.models;
+
+/**
+ * The result of the last execution of a test class.
+ * @param name - the test class package name.
+ * @param failed - true if the test exit with errors.
+ * @param elapsed - the elapsed time in milliseconds.
+ */
+public record TestResultModel(String name, boolean failed, long elapsed) {
+}
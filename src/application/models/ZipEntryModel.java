@@ -0,0 +1,21 @@
+package application.models;
+
+/**
+ * The central directory information of a zip entry.
+ * @param name - the entry name.
+ * @param method - the compression method, 0 for stored and 8 for deflated.
+ * @param crc - the crc32 of the uncompressed content.
+ * @param compressedSize - the size of the entry data in the zip file.
+ * @param size - the size of the uncompressed content.
+ * @param headerOffset - the position of the local header in the zip file.
+ */
+public record ZipEntryModel(String name, int method, long crc, long compressedSize, long size, long headerOffset) {
+
+    /**
+     * Find if the entry is a directory.
+     * @return true if the name ends with /, false otherwise.
+     */
+    public boolean isDirectory() {
+        return name.endsWith("/");
+    }
+}
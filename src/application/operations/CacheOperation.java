@@ -0,0 +1,358 @@
+package application.operations;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Local build cache with the class files of each compiled source file.
+ * <p> The entries are addressed by the hash of the source content, the compile flags, the compiler version and the lib dependencies.
+ * <p> Each entry also stores the abi of the project classes it references,
+ * a restored entry is only valid while those classes keep the same abi.
+ * <p> The least recently used entries are removed when the cache is bigger than its max size.
+ */
+public class CacheOperation {
+
+    public static final long DEFAULT_MAX_SIZE = 512L * 1024 * 1024;
+    private static final String ENTRY_FILE = "entry.txt";
+    private static final String STATS_FILE = "stats.txt";
+    private static final String HASH_ALGORITHM = "SHA-256";
+    private static final String CONSOLE_FORMAT = "[%s] %s%n";
+
+    private Path cacheDirectory;
+    private long maxSize;
+    private String flags;
+    private String compilerVersion;
+    private String libHash;
+
+    // source file -> entry directory, computed once per execution
+    private Map<String, Path> sourceEntries;
+    // source file -> referenced project class and its abi, of the entries restored by the last call
+    private Map<String, Map<String, String>> restoredDependencies;
+    private long hits;
+    private long misses;
+
+    /**
+     * Create the cache stored in the user home directory.
+     * @param maxSize - the max size in bytes of the cache.
+     */
+    public CacheOperation(long maxSize) {
+        this(Paths.get(System.getProperty("user.home"), GraphOperation.STATE_DIRECTORY, "cache"), maxSize);
+    }
+    /**
+     * Create the cache stored in the given directory.
+     * @param cacheDirectory - the directory of the cache entries.
+     * @param maxSize - the max size in bytes of the cache.
+     */
+    public CacheOperation(Path cacheDirectory, long maxSize) {
+        this.cacheDirectory = cacheDirectory;
+        this.maxSize = maxSize;
+        sourceEntries = new HashMap<>();
+        restoredDependencies = new HashMap<>();
+    }
+
+    /**
+     * Set the compile configuration that is part of every entry key.
+     * @param flags - the compile flags.
+     * @param assets - the lib dependencies separated by ; used to compile.
+     * @param compilerVersion - the version of the compiler, which might not be the jdk running this program.
+     * @return this instance.
+     */
+    public CacheOperation prepare(String flags, String assets, String compilerVersion) {
+        this.flags = flags;
+        this.compilerVersion = compilerVersion;
+        sourceEntries.clear();
+        StringBuilder libs = new StringBuilder();
+        for(String a: assets.split(";")) {
+            if(a.isBlank()) continue;
+            Path lib = Paths.get(a.trim());
+            try {
+                libs.append(a.trim()).append('=').append(Files.isRegularFile(lib) ?
+                        HexFormat.of().formatHex(StateOperation.hash(lib)) : "").append('\n');
+            } catch(IOException e) {
+                libs.append(a.trim()).append("=\n");
+            }
+        }
+        libHash = hash(libs.toString());
+        return this;
+    }
+    /**
+     * Copy into the class path the class files of the given source files present in the cache.
+     * <p> The previous class files of a restored source file are removed first.
+     * @param sourceFiles - the source files to restore.
+     * @param classPath - the path where the class files are placed.
+     * @param graph - the graph with the current classes of each source file.
+     * @return the restored source files.
+     */
+    public Set<String> restore(Collection<String> sourceFiles, String classPath, GraphOperation graph) {
+        restoredDependencies.clear();
+        Set<String> restored = new HashSet<>();
+        Map<String, List<String>> sourceClasses = getSourceClasses(graph);
+        for(String s: sourceFiles) {
+            try {
+                Path entry = getEntry(s);
+                Path entryFile = entry.resolve(ENTRY_FILE);
+                if(!Files.exists(entryFile)) {
+                    ++misses;
+                    continue;
+                }
+                List<String> classes = new ArrayList<>();
+                Map<String, String> dependencies = new HashMap<>();
+                readEntry(entryFile, classes, dependencies);
+                for(String c: sourceClasses.getOrDefault(s, List.of())) {
+                    Files.deleteIfExists(Paths.get(classPath, c + ".class"));
+                }
+                for(String c: classes) {
+                    Path target = Paths.get(classPath, c + ".class");
+                    Files.createDirectories(target.getParent());
+                    // a copy because javac writes over the existing class files, which would change a linked entry.
+                    Files.copy(entry.resolve(c + ".class"), target, StandardCopyOption.REPLACE_EXISTING);
+                }
+                Files.setLastModifiedTime(entryFile, FileTime.fromMillis(System.currentTimeMillis()));
+                restoredDependencies.put(s, dependencies);
+                restored.add(s);
+                ++hits;
+            } catch(IOException e) {
+                ++misses;
+                System.console().printf(CONSOLE_FORMAT, "Warning", "Couldn't restore " + s + " from the build cache.");
+            }
+        }
+        if(!restored.isEmpty()) {
+            System.console().printf(CONSOLE_FORMAT, "Info", String.format(
+                        "Restored %s files from the build cache.", restored.size()));
+        }
+        return restored;
+    }
+    /**
+     * Get the restored source files whose referenced classes have a different abi now or are not present.
+     * @param graph - the updated graph of the class path.
+     * @return the source files that need to be compiled.
+     */
+    public Set<String> getInvalid(GraphOperation graph) {
+        Set<String> invalid = new HashSet<>();
+        for(Map.Entry<String, Map<String, String>> e: restoredDependencies.entrySet()) {
+            for(Map.Entry<String, String> d: e.getValue().entrySet()) {
+                String current = graph.getClassAbi(d.getKey());
+                if(current == null || !current.equals(d.getValue())) {
+                    invalid.add(e.getKey());
+                    break;
+                }
+            }
+        }
+        if(!invalid.isEmpty()) {
+            System.console().printf(CONSOLE_FORMAT, "Info", String.format(
+                        "%s restored files reference changed classes.", invalid.size()));
+            restoredDependencies.keySet().removeAll(invalid);
+            hits -= invalid.size();
+            misses += invalid.size();
+        }
+        return invalid;
+    }
+    /**
+     * Store the class files of the given source files.
+     * @param sourceFiles - the compiled source files.
+     * @param classPath - the path where the class files are.
+     * @param graph - the updated graph of the class path.
+     */
+    public void store(Collection<String> sourceFiles, String classPath, GraphOperation graph) {
+        Map<String, List<String>> sourceClasses = getSourceClasses(graph);
+        boolean stored = false;
+        for(String s: sourceFiles) {
+            List<String> classes = sourceClasses.get(s);
+            if(classes == null) continue;
+            try {
+                Path entry = getEntry(s);
+                if(Files.exists(entry.resolve(ENTRY_FILE))) continue;
+                Files.createDirectories(entry.getParent());
+                Path temporary = Files.createTempDirectory(entry.getParent(), entry.getFileName() + ".");
+                Set<String> own = new HashSet<>(classes);
+                try (BufferedWriter writer = Files.newBufferedWriter(temporary.resolve(ENTRY_FILE), StandardCharsets.UTF_8)) {
+                    Set<String> written = new HashSet<>();
+                    for(String c: classes) {
+                        Path target = temporary.resolve(c + ".class");
+                        Files.createDirectories(target.getParent());
+                        Files.copy(Paths.get(classPath, c + ".class"), target);
+                        writer.write("class\t" + c);
+                        writer.newLine();
+                        for(String d: graph.getClassDependencies().getOrDefault(c, Set.of())) {
+                            String abi = graph.getClassAbi(d);
+                            if(abi == null || own.contains(d) || !written.add(d)) continue;
+                            writer.write("dependency\t" + d + "\t" + abi);
+                            writer.newLine();
+                        }
+                    }
+                }
+                try {
+                    Files.move(temporary, entry, StandardCopyOption.ATOMIC_MOVE);
+                    stored = true;
+                } catch(FileAlreadyExistsException | AtomicMoveNotSupportedException e) {
+                    // other build stored the same entry first.
+                    deleteDirectory(temporary);
+                }
+            } catch(IOException e) {
+                System.console().printf(CONSOLE_FORMAT, "Warning", "Couldn't store " + s + " in the build cache.");
+            }
+        }
+        if(stored) evict();
+    }
+    /**
+     * Add the hits and misses of this execution to the stored statistics.
+     */
+    public void saveStats() {
+        if(hits == 0 && misses == 0) return;
+        long[] stats = readStats();
+        stats[0] += hits;
+        stats[1] += misses;
+        hits = 0;
+        misses = 0;
+        try {
+            Files.createDirectories(cacheDirectory);
+            Files.writeString(cacheDirectory.resolve(STATS_FILE), stats[0] + "\t" + stats[1] + "\n", StandardCharsets.UTF_8);
+        } catch(IOException e) {
+            e.printStackTrace();
+        }
+    }
+    /**
+     * Show the number of entries, the size and the hit rate of the cache.
+     */
+    public void showStats() {
+        Map<Path, long[]> entries = getEntries();
+        long size = entries.values().stream().mapToLong(e -> e[0]).sum();
+        long[] stats = readStats();
+        long total = stats[0] + stats[1];
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("Build cache: %s%n", cacheDirectory));
+        report.append(String.format("\tEntries: %s%n", entries.size()));
+        report.append(String.format("\tSize: %.2f MB of %.2f MB%n", size / 1048576.0, maxSize / 1048576.0));
+        report.append(String.format("\tHits: %s%n", stats[0]));
+        report.append(String.format("\tMisses: %s%n", stats[1]));
+        report.append(String.format("\tHit rate: %.1f%%", total == 0 ? 0.0 : stats[0] * 100.0 / total));
+        System.console().printf("%s%n", report.toString());
+    }
+    /**
+     * Remove the least recently used entries until the cache size is below its max size.
+     */
+    private void evict() {
+        Map<Path, long[]> entries = getEntries();
+        long size = entries.values().stream().mapToLong(e -> e[0]).sum();
+        if(size <= maxSize) return;
+        List<Map.Entry<Path, long[]>> order = new ArrayList<>(entries.entrySet());
+        order.sort(Comparator.comparingLong(e -> e.getValue()[1]));
+        int removed = 0;
+        for(Map.Entry<Path, long[]> e: order) {
+            if(size <= maxSize) break;
+            try {
+                deleteDirectory(e.getKey());
+                size -= e.getValue()[0];
+                ++removed;
+            } catch(IOException ex) {
+                ex.printStackTrace();
+            }
+        }
+        System.console().printf(CONSOLE_FORMAT, "Info", String.format(
+                    "Removed %s entries from the build cache.", removed));
+    }
+    /**
+     * Get the size and last use time of each entry.
+     */
+    private Map<Path, long[]> getEntries() {
+        Map<Path, long[]> entries = new HashMap<>();
+        if(!Files.isDirectory(cacheDirectory)) return entries;
+        try (Stream<Path> s = Files.walk(cacheDirectory, 2)) {
+            for(Path entry: s.filter(p -> Files.exists(p.resolve(ENTRY_FILE))).toList()) {
+                long size;
+                try (Stream<Path> files = Files.walk(entry)) {
+                    size = files.filter(Files::isRegularFile).mapToLong(p -> p.toFile().length()).sum();
+                }
+                entries.put(entry, new long[] {size, entry.resolve(ENTRY_FILE).toFile().lastModified()});
+            }
+        } catch(IOException e) {
+            e.printStackTrace();
+        }
+        return entries;
+    }
+    /**
+     * Get the entry directory of a source file.
+     * <p> The first 2 characters of the key are used as a sub directory to keep the directories small.
+     */
+    private Path getEntry(String sourceFile) throws IOException {
+        Path entry = sourceEntries.get(sourceFile);
+        if(entry != null) return entry;
+        String sourceHash = HexFormat.of().formatHex(StateOperation.hash(Paths.get(sourceFile)));
+        String key = hash(sourceHash + "\n" + flags + "\n" + compilerVersion + "\n" + libHash);
+        entry = cacheDirectory.resolve(key.substring(0, 2)).resolve(key);
+        sourceEntries.put(sourceFile, entry);
+        return entry;
+    }
+    private Map<String, List<String>> getSourceClasses(GraphOperation graph) {
+        Map<String, List<String>> sourceClasses = new HashMap<>();
+        for(Map.Entry<String, String> e: graph.getClassSources().entrySet()) {
+            sourceClasses.computeIfAbsent(e.getValue(), k -> new ArrayList<>()).add(e.getKey());
+        }
+        return sourceClasses;
+    }
+    private void readEntry(Path entryFile, List<String> classes, Map<String, String> dependencies) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(entryFile, StandardCharsets.UTF_8)) {
+            String line;
+            while((line = reader.readLine()) != null) {
+                String[] columns = line.split("\t", 3);
+                if(columns[0].equals("class") && columns.length == 2) {
+                    classes.add(columns[1]);
+                } else if(columns[0].equals("dependency") && columns.length == 3) {
+                    dependencies.put(columns[1], columns[2]);
+                }
+            }
+        }
+    }
+    private long[] readStats() {
+        long[] stats = new long[2];
+        Path statsFile = cacheDirectory.resolve(STATS_FILE);
+        if(!Files.exists(statsFile)) return stats;
+        try {
+            String[] columns = Files.readString(statsFile, StandardCharsets.UTF_8).trim().split("\t");
+            stats[0] = Long.parseLong(columns[0]);
+            stats[1] = Long.parseLong(columns[1]);
+        } catch(IOException | RuntimeException e) {
+            System.console().printf(CONSOLE_FORMAT, "Warning", "Couldn't read the build cache statistics.");
+        }
+        return stats;
+    }
+    private void deleteDirectory(Path directory) throws IOException {
+        try (Stream<Path> s = Files.walk(directory)) {
+            for(Path p: s.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(p);
+            }
+        }
+    }
+    private String hash(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance(HASH_ALGORITHM);
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch(NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
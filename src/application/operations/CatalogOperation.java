@@ -0,0 +1,298 @@
+package application.operations;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import java.lang.module.ModuleDescriptor;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.jar.Attributes;
+import java.util.jar.Manifest;
+
+import application.models.LibJarModel;
+import application.models.ZipEntryModel;
+import application.utils.ClassFileUtils;
+import application.utils.ProfileUtils;
+import application.utils.ZipReader;
+
+/**
+ * Catalog of the lib .jar dependencies with the class path and the metadata of each .jar file.
+ * <p> The .jar files are listed from the project index and only the new or modified ones are read again,
+ * so the builders can ask for the lib class path many times in the same command.
+ * <p> The modified .jar files are read in parallel and the catalog is stored in the lib directory build state.
+ * <p> The packages of each .jar file are indexed to find the .jar files that a source file needs,
+ * and the packages referenced by its classes give the .jar files that it needs in turn.
+ */
+public class CatalogOperation {
+
+    public static final String CATALOG_FILE = "catalog.bin";
+    private static final int MAGIC = 0x4A424C43;
+    private static final int VERSION = 3;
+    private static final String FILE_EXTENSION = ".jar";
+    private static final int LIB_LEVEL = 3;
+    private static final String MODULE_INFO = "module-info.class";
+    private static final String VERSIONS_PREFIX = "META-INF/versions/";
+    private static final String MANIFEST_NAME = "META-INF/MANIFEST.MF";
+    private static final String AUTOMATIC_MODULE_NAME = "Automatic-Module-Name";
+    private static final String PROCESSOR_SERVICE = "META-INF/services/javax.annotation.processing.Processor";
+
+    private String libPath;
+    private Path catalogFile;
+    private FileOperation fileOperation;
+    // the catalog entries in the order of the lib directory.
+    private List<LibJarModel> jars;
+    private String classPath;
+    // the .jar files of each package, created again when the catalog changes.
+    private Map<String, List<String>> packageIndex;
+    private boolean loaded;
+
+    /**
+     * Create the catalog of the given lib directory.
+     * @param libPath - the path where the .jar dependencies are.
+     * @param fileOperation - the file operation used to list the .jar files.
+     */
+    public CatalogOperation(String libPath, FileOperation fileOperation) {
+        this.libPath = libPath;
+        this.fileOperation = fileOperation;
+        catalogFile = Paths.get(libPath, GraphOperation.STATE_DIRECTORY, CATALOG_FILE);
+        jars = new ArrayList<>();
+        classPath = "";
+    }
+
+    /**
+     * Get the lib .jar dependencies separated by ;.
+     * @return the class path of the lib directory, empty if there are no .jar files.
+     */
+    public synchronized String getClassPath() {
+        refresh();
+        return classPath;
+    }
+    /**
+     * Get the metadata of the lib .jar dependencies.
+     * @return the catalog entries in the order of the lib directory.
+     */
+    public synchronized List<LibJarModel> getJars() {
+        refresh();
+        return jars;
+    }
+    /**
+     * Get the .jar files that have classes of each package.
+     * <p> A package may be split in more than one .jar file.
+     * @return the .jar files by package in the internal form like org/slf4j.
+     */
+    public synchronized Map<String, List<String>> getPackageIndex() {
+        refresh();
+        if(packageIndex == null) {
+            packageIndex = new HashMap<>();
+            for(LibJarModel j: jars) {
+                for(String p: j.packages()) {
+                    packageIndex.computeIfAbsent(p, k -> new ArrayList<>()).add(j.path());
+                }
+            }
+        }
+        return packageIndex;
+    }
+    /**
+     * Update the catalog with the current .jar files of the lib directory.
+     * <p> The .jar files with the same size and last modified time keep their metadata.
+     */
+    private void refresh() {
+        if(!loaded) load();
+        List<Path> files = fileOperation.getFiles(libPath, LIB_LEVEL, FILE_EXTENSION);
+        Map<String, LibJarModel> recorded = new HashMap<>();
+        for(LibJarModel j: jars) {
+            recorded.put(j.path(), j);
+        }
+        Map<String, LibJarModel> current = new ConcurrentHashMap<>();
+        List<Path> pending = new ArrayList<>();
+        for(Path p: files) {
+            String file = p.normalize().toString();
+            LibJarModel jar = recorded.get(file);
+            try {
+                BasicFileAttributes attributes = Files.readAttributes(p, BasicFileAttributes.class);
+                if(jar != null && jar.hasSameAttributes(attributes.size(), attributes.lastModifiedTime().toMillis())) {
+                    current.put(file, jar);
+                    continue;
+                }
+            } catch(IOException e) {
+                // the file was removed after it was listed.
+                continue;
+            }
+            pending.add(p);
+        }
+        if(!pending.isEmpty()) {
+            ProfileUtils.measure("catalog", () -> pending.parallelStream().forEach(p -> readJar(p).ifPresent(j -> current.put(j.path(), j))));
+            if(System.console() != null) {
+                System.console().printf("[Info] %s lib dependencies added to the catalog%n", pending.size());
+            }
+        }
+        List<LibJarModel> updated = new ArrayList<>();
+        StringBuilder prepared = new StringBuilder();
+        for(Path p: files) {
+            LibJarModel jar = current.get(p.normalize().toString());
+            if(jar == null) continue;
+            updated.add(jar);
+            prepared.append(String.format("%s;", jar.path()));
+        }
+        boolean changed = !updated.equals(jars);
+        jars = updated;
+        classPath = prepared.toString();
+        if(changed) {
+            packageIndex = null;
+            save();
+        }
+    }
+    /**
+     * Read the metadata of a .jar file.
+     * @param jarFile - the .jar file to read.
+     * @return the catalog entry or empty if the file is not a valid .jar file.
+     */
+    private Optional<LibJarModel> readJar(Path jarFile) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(jarFile, BasicFileAttributes.class);
+            String hash = HexFormat.of().formatHex(StateOperation.hash(jarFile));
+            try (ZipReader reader = new ZipReader(jarFile)) {
+                Manifest manifest = null;
+                ZipEntryModel moduleInfo = null;
+                Set<String> packages = new HashSet<>();
+                Set<String> references = new HashSet<>();
+                ClassFileUtils classFileUtils = new ClassFileUtils();
+                boolean processor = false;
+                for(ZipEntryModel e: reader.getEntries()) {
+                    Optional<String> entryPackage = getPackage(e.name());
+                    if(entryPackage.isPresent()) {
+                        packages.add(entryPackage.get());
+                        for(String r: classFileUtils.getReferences(reader.readContent(e))) {
+                            int index = r.lastIndexOf('/');
+                            if(index > 0 && !r.startsWith("java/")) references.add(r.substring(0, index));
+                        }
+                    }
+                    if(e.name().equals(PROCESSOR_SERVICE)) processor = true;
+                    if(e.name().equals(MANIFEST_NAME)) {
+                        manifest = new Manifest(new ByteArrayInputStream(reader.readContent(e)));
+                    } else if(e.name().equals(MODULE_INFO) ||
+                            (moduleInfo == null && e.name().startsWith(VERSIONS_PREFIX) && e.name().endsWith("/" + MODULE_INFO))) {
+                        moduleInfo = e;
+                    }
+                }
+                references.removeAll(packages);
+                Attributes main = manifest == null ? new Attributes() : manifest.getMainAttributes();
+                boolean multiRelease = "true".equalsIgnoreCase(main.getValue(Attributes.Name.MULTI_RELEASE));
+                String moduleName = Optional.ofNullable(main.getValue(AUTOMATIC_MODULE_NAME)).orElse("");
+                if(moduleInfo != null) {
+                    moduleName = ModuleDescriptor.read(new ByteArrayInputStream(reader.readContent(moduleInfo))).name();
+                }
+                return Optional.of(new LibJarModel(jarFile.normalize().toString(), attributes.size(),
+                            attributes.lastModifiedTime().toMillis(), hash, reader.getEntries().size(), moduleName, multiRelease,
+                            processor, packages, references));
+            }
+        } catch(IOException | RuntimeException e) {
+            if(System.console() != null) {
+                System.console().printf("[Warning] The lib dependency couldn't be read%n => | %s |%n", jarFile);
+            }
+        }
+        return Optional.empty();
+    }
+    /**
+     * Get the package of a class entry, the versioned entries of a multi-release .jar file use the package without the prefix.
+     * @param entryName - the entry name like org/slf4j/Logger.class.
+     * @return the package like org/slf4j or empty if the entry is not a class of a named package.
+     */
+    private Optional<String> getPackage(String entryName) {
+        if(!entryName.endsWith(".class") || entryName.endsWith(MODULE_INFO)) return Optional.empty();
+        String name = entryName;
+        if(name.startsWith(VERSIONS_PREFIX)) {
+            int start = name.indexOf('/', VERSIONS_PREFIX.length());
+            if(start == -1) return Optional.empty();
+            name = name.substring(start + 1);
+        } else if(name.startsWith("META-INF/")) {
+            return Optional.empty();
+        }
+        int index = name.lastIndexOf('/');
+        return index <= 0 ? Optional.empty() : Optional.of(name.substring(0, index));
+    }
+    private void load() {
+        loaded = true;
+        jars = new ArrayList<>();
+        if(!Files.exists(catalogFile)) return;
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(catalogFile)))) {
+            if(input.readInt() != MAGIC || input.readInt() != VERSION) return;
+            int count = input.readInt();
+            for(int i=0; i<count; ++i) {
+                String path = input.readUTF();
+                long size = input.readLong();
+                long modified = input.readLong();
+                String hash = input.readUTF();
+                int entries = input.readInt();
+                String moduleName = input.readUTF();
+                boolean multiRelease = input.readBoolean();
+                boolean processor = input.readBoolean();
+                int packageCount = input.readInt();
+                Set<String> packages = new HashSet<>();
+                for(int j=0; j<packageCount; ++j) {
+                    packages.add(input.readUTF());
+                }
+                int referenceCount = input.readInt();
+                Set<String> references = new HashSet<>();
+                for(int j=0; j<referenceCount; ++j) {
+                    references.add(input.readUTF());
+                }
+                jars.add(new LibJarModel(path, size, modified, hash, entries, moduleName, multiRelease, processor, packages,
+                            references));
+            }
+        } catch(IOException e) {
+            if(System.console() != null) {
+                System.console().printf("[Warning] The lib catalog is corrupted, it will be created again%n => | %s |%n", catalogFile);
+            }
+            jars.clear();
+        }
+    }
+    private void save() {
+        if(jars.isEmpty() && !Files.exists(catalogFile)) return;
+        try {
+            Files.createDirectories(catalogFile.getParent());
+            try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(catalogFile)))) {
+                output.writeInt(MAGIC);
+                output.writeInt(VERSION);
+                output.writeInt(jars.size());
+                for(LibJarModel j: jars) {
+                    output.writeUTF(j.path());
+                    output.writeLong(j.size());
+                    output.writeLong(j.modified());
+                    output.writeUTF(j.hash());
+                    output.writeInt(j.entries());
+                    output.writeUTF(j.moduleName());
+                    output.writeBoolean(j.multiRelease());
+                    output.writeBoolean(j.processor());
+                    output.writeInt(j.packages().size());
+                    for(String p: j.packages()) {
+                        output.writeUTF(p);
+                    }
+                    output.writeInt(j.references().size());
+                    for(String r: j.references()) {
+                        output.writeUTF(r);
+                    }
+                }
+            }
+        } catch(IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package application.operations;
+
+import java.io.IOException;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import java.util.HexFormat;
+import java.util.stream.Stream;
+
+/**
+ * Class data sharing archive of the project .jar file to start the program faster.
+ * <p> The archive is created by a training run with -XX:ArchiveClassesAtExit and used by the next runs
+ * with -XX:SharedArchiveFile.
+ * <p> The JVM can't archive the classes of a directory, so the archive is only created for the .jar file.
+ * <p> The content hash of the .jar file is stored next to the archive, when it changes the archive is created again.
+ * <p> The JVM also refuses the archive when the size or last modified time of the .jar file changes,
+ * so they are stored with the hash.
+ */
+public class CdsOperation {
+
+    public static final String ARCHIVE_EXTENSION = ".jsa";
+    private static final String HASH_EXTENSION = ".sha256";
+
+    private Path jarFile;
+    private Path archiveFile;
+    private Path hashFile;
+    private String hash;
+
+    /**
+     * Create the shared archive of the given .jar file.
+     * @param jarURI - the .jar file, the archive is placed next to it with the .jsa extension.
+     */
+    public CdsOperation(String jarURI) {
+        jarFile = Paths.get(jarURI);
+        String name = jarFile.getFileName().toString().replaceFirst("\\.jar$", "");
+        archiveFile = jarFile.resolveSibling(name + ARCHIVE_EXTENSION);
+        hashFile = jarFile.resolveSibling(name + ARCHIVE_EXTENSION + HASH_EXTENSION);
+    }
+
+    /**
+     * Find if the .jar file exists to run it.
+     * @return true if its present, false otherwise.
+     */
+    public boolean hasJar() {
+        return Files.exists(jarFile);
+    }
+    /**
+     * Find if a file of the class path was modified after the .jar file was created.
+     * <p> The build state of the class path is ignored.
+     * @param classPath - the path where the class files are.
+     * @return true if the .jar file doesn't have the last compiled classes, false otherwise.
+     */
+    public boolean isOlderThan(String classPath) {
+        Path classDirectory = Paths.get(classPath);
+        if(!Files.exists(classDirectory)) return false;
+        try (Stream<Path> s = Files.walk(classDirectory)) {
+            long created = Files.getLastModifiedTime(jarFile).toMillis();
+            Path stateDirectory = classDirectory.resolve(GraphOperation.STATE_DIRECTORY);
+            return s
+                .filter(p -> !p.startsWith(stateDirectory) && Files.isRegularFile(p))
+                .anyMatch(p -> p.toFile().lastModified() > created);
+        } catch(IOException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+    /**
+     * Find if the archive was created from the current content of the .jar file.
+     * @return true if the archive can be used, false otherwise.
+     */
+    public boolean isValid() {
+        if(!Files.exists(archiveFile) || !Files.exists(hashFile)) return false;
+        try {
+            return Files.readString(hashFile, StandardCharsets.UTF_8).trim().equals(getRecord());
+        } catch(IOException e) {
+            return false;
+        }
+    }
+    /**
+     * Get the JVM option to use the archive, or to create it when its not valid.
+     * @return the -XX:SharedArchiveFile or -XX:ArchiveClassesAtExit option.
+     */
+    public String getOption() {
+        if(isValid()) return String.format("-XX:SharedArchiveFile='%s'", archiveFile);
+        try {
+            Files.deleteIfExists(archiveFile);
+            Files.deleteIfExists(hashFile);
+        } catch(IOException e) {
+            e.printStackTrace();
+        }
+        return String.format("-XX:ArchiveClassesAtExit='%s'", archiveFile);
+    }
+    /**
+     * Record the archive created by a training run.
+     * <p> The archive of a failed run is removed, since it might not have the classes of a normal run.
+     * @param success - true if the training run exit without errors.
+     * @return true if the archive was recorded, false otherwise.
+     */
+    public boolean record(boolean success) {
+        try {
+            if(!success || !Files.exists(archiveFile)) {
+                Files.deleteIfExists(archiveFile);
+                System.console().printf("[Warning] %s%n", "The training run failed, the shared archive was not created.");
+                return false;
+            }
+            Files.writeString(hashFile, getRecord(), StandardCharsets.UTF_8);
+            System.console().printf("[Info] Shared archive created at %s%n", archiveFile);
+            return true;
+        } catch(IOException e) {
+            e.printStackTrace();
+        }
+        return false;
+    }
+    /**
+     * Get the content hash, size and last modified time of the .jar file.
+     * <p> The hash is computed only once, the .jar file doesn't change while the program runs.
+     */
+    private String getRecord() throws IOException {
+        if(hash == null) hash = HexFormat.of().formatHex(StateOperation.hash(jarFile));
+        return String.format("%s %s %s", hash, Files.size(jarFile), Files.getLastModifiedTime(jarFile).toMillis());
+    }
+}
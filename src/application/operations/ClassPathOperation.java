@@ -0,0 +1,132 @@
+package application.operations;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import application.models.LibJarModel;
+
+/**
+ * Get the lib .jar files that a group of source files references, to compile them with a smaller class path.
+ * <p> The referenced packages are taken from the classes recorded in the dependency graph for those source files,
+ * and from the package and import declarations of the source files, which covers the new references.
+ * <p> The packages are matched with the package index of the lib catalog.
+ * <p> The .jar files referenced by the classes of the selected .jar files are added too, since the compiler reads
+ * their annotations and supertypes and warns when those classes are missing.
+ * <p> The .jar files with annotation processors are always used, since the compiler looks for them in the class path.
+ * <p> A reference that is not found this way, like a fully qualified name added since the last compilation,
+ * makes the compiler fail, so the compilation is repeated with every lib dependency.
+ */
+public class ClassPathOperation {
+
+    private static final Pattern DECLARATION = Pattern.compile("^\\s*(?:package|import(?:\\s+static)?)\\s+([\\w.]+)");
+    private static final Pattern TYPE = Pattern.compile(
+            "^\\s*(?:(?:public|protected|private|abstract|final|sealed|non-sealed|static|strictfp)\\s+)*(?:class|interface|enum|record|@interface)\\s");
+
+    private CatalogOperation catalog;
+    // the classes compiled from each source file.
+    private Map<String, Set<String>> sourceClasses;
+    private Map<String, Set<String>> classDependencies;
+
+    /**
+     * Create the lib class path of a class path.
+     * @param libPath - the path where the .jar dependencies are.
+     * @param graph - the loaded dependency graph of the class path, null if it doesn't exists.
+     * @param fileOperation - the file operation that keeps the lib catalog.
+     */
+    public ClassPathOperation(String libPath, GraphOperation graph, FileOperation fileOperation) {
+        catalog = fileOperation.getCatalog(libPath);
+        sourceClasses = new HashMap<>();
+        classDependencies = graph == null ? Map.of() : graph.getClassDependencies();
+        if(graph == null) return;
+        for(Map.Entry<String, String> e: graph.getClassSources().entrySet()) {
+            sourceClasses.computeIfAbsent(e.getValue(), k -> new HashSet<>()).add(e.getKey());
+        }
+    }
+
+    /**
+     * Get the lib .jar files of the packages referenced by the source files.
+     * @param sourceFiles - the .java files to compile.
+     * @return the .jar files separated by ; in the order of the lib directory.
+     */
+    public String getLibFiles(Collection<String> sourceFiles) {
+        Map<String, List<String>> index = catalog.getPackageIndex();
+        Map<String, LibJarModel> catalogJars = new HashMap<>();
+        for(LibJarModel j: catalog.getJars()) {
+            catalogJars.put(j.path(), j);
+        }
+        Set<String> jars = new HashSet<>();
+        for(String name: getReferences(sourceFiles)) {
+            // the name might be a class or a nested class, so every prefix is tried as a package.
+            String candidate = name;
+            while(!candidate.isEmpty()) {
+                jars.addAll(index.getOrDefault(candidate, List.of()));
+                int end = candidate.lastIndexOf('/');
+                candidate = end == -1 ? "" : candidate.substring(0, end);
+            }
+        }
+        // close over the packages that the selected .jar files reference.
+        Deque<String> pending = new ArrayDeque<>(jars);
+        while(!pending.isEmpty()) {
+            LibJarModel jar = catalogJars.get(pending.poll());
+            if(jar == null) continue;
+            for(String p: jar.references()) {
+                for(String j: index.getOrDefault(p, List.of())) {
+                    if(jars.add(j)) pending.add(j);
+                }
+            }
+        }
+        StringBuilder prepared = new StringBuilder();
+        for(LibJarModel j: catalog.getJars()) {
+            if(j.processor() || jars.contains(j.path())) prepared.append(String.format("%s;", j.path()));
+        }
+        return prepared.toString();
+    }
+    /**
+     * Get the number of lib .jar files.
+     * @return the size of the lib catalog.
+     */
+    public int getLibCount() {
+        return catalog.getJars().size();
+    }
+    /**
+     * Get the names referenced by the source files in the internal form like org/slf4j/Logger.
+     */
+    private Set<String> getReferences(Collection<String> sourceFiles) {
+        Set<String> references = new HashSet<>();
+        for(String f: sourceFiles) {
+            for(String c: sourceClasses.getOrDefault(Paths.get(f).normalize().toString(), Set.of())) {
+                references.addAll(classDependencies.getOrDefault(c, Set.of()));
+            }
+            try (BufferedReader reader = Files.newBufferedReader(Paths.get(f), StandardCharsets.UTF_8)) {
+                String line;
+                while((line = reader.readLine()) != null) {
+                    Matcher matcher = DECLARATION.matcher(line);
+                    if(matcher.find()) {
+                        references.add(matcher.group(1).replace(".", "/"));
+                    } else if(TYPE.matcher(line).find()) {
+                        // the declarations are before the first type.
+                        break;
+                    }
+                }
+            } catch(IOException e) {
+                e.printStackTrace();
+            }
+        }
+        return references;
+    }
+}
@@ -0,0 +1,307 @@
+package application.operations;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+public class CompilerOperation {
+
+    private static final String CONSOLE_FORMAT = "[%s] %s%n";
+    // the errors of a class that can't be found, when the class path was pruned they mean that a .jar file is missing.
+    private static final List<String> MISSING_CLASS_CODES = List.of(
+            "compiler.err.doesnt.exist",
+            "compiler.err.cant.resolve",
+            "compiler.err.cant.access"
+    );
+
+    private JavaCompiler compiler;
+    private StandardJavaFileManager fileManager;
+
+    /**
+     * Create the in-process compiler using the system java compiler.
+     * <p> When the JVM doesn't provide a compiler (JRE only) the instance is not available.
+     */
+    public CompilerOperation() {
+        compiler = ToolProvider.getSystemJavaCompiler();
+        if(compiler != null) {
+            fileManager = compiler.getStandardFileManager(null, Locale.getDefault(), StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Find if the in-process compiler can be used.
+     * @return true if the system java compiler is present, false otherwise.
+     */
+    public boolean isAvailable() {
+        return compiler != null;
+    }
+    /**
+     * Compile the given source files inside the current JVM.
+     * <p> The file manager is reused between calls to avoid re-opening the platform classes.
+     * @param sourceFiles - the .java files to compile.
+     * @param classPath - the path where the class files are placed.
+     * @param assets - the class path entries separated by ; used to resolve other classes.
+     * @param compileFlags - the flags to pass to the compiler separated by spaces.
+     * @return true if the compilation succeed, false otherwise.
+     */
+    public boolean compile(List<String> sourceFiles, String classPath, String assets, String compileFlags) {
+        return compile(sourceFiles, classPath, assets, assets, compileFlags);
+    }
+    /**
+     * Compile the given source files with a pruned class path.
+     * <p> When a class can't be found the source files are compiled again with the complete class path,
+     * and only the diagnostics of that compilation are shown.
+     * @param sourceFiles - the .java files to compile.
+     * @param classPath - the path where the class files are placed.
+     * @param assets - the pruned class path entries separated by ;.
+     * @param fallbackAssets - the complete class path entries separated by ;.
+     * @param compileFlags - the flags to pass to the compiler separated by spaces.
+     * @return true if the compilation succeed, false otherwise.
+     */
+    public boolean compile(List<String> sourceFiles, String classPath, String assets, String fallbackAssets, String compileFlags) {
+        if(!isAvailable()) return false;
+        if(sourceFiles.isEmpty()) {
+            System.console().printf(CONSOLE_FORMAT, "Info", "No files to compile.");
+            return true;
+        }
+        try {
+            Files.createDirectories(Paths.get(classPath));
+        } catch(IOException e) {
+            e.printStackTrace();
+            return false;
+        }
+        List<String> options = getOptions(classPath, assets, compileFlags);
+        List<String> fallbackOptions = getOptions(classPath, fallbackAssets, compileFlags);
+
+        System.console().printf(CONSOLE_FORMAT, "Info", String.format("Compiling %s files in-process.", sourceFiles.size()));
+        return runTask(fileManager, sourceFiles, options, fallbackOptions);
+    }
+    /**
+     * Compile the partitions of each level at the same time.
+     * <p> A level starts when the previous one finish, and the compilation stops at the first level with errors.
+     * <p> The partitions of a level write to a temporary directory that is moved into the class path when the level finish,
+     * so the class path they read doesn't change while they are compiled.
+     * <p> The source path is given to the compiler to resolve the classes of undetected dependencies
+     * without generating its class files.
+     * @param levels - the partitions of each level in compile order.
+     * @param classPath - the path where the class files are placed.
+     * @param assets - the class path entries separated by ; used to resolve other classes.
+     * @param compileFlags - the flags to pass to the compiler separated by spaces.
+     * @param sourcePath - the root path of the source files.
+     * @param jobs - the max number of partitions to compile at the same time.
+     * @return true if the compilation succeed, false otherwise.
+     */
+    public boolean compile(List<List<List<String>>> levels, String classPath, String assets, String compileFlags,
+            String sourcePath, int jobs) {
+        return compile(levels, classPath, p -> assets, assets, compileFlags, sourcePath, jobs);
+    }
+    /**
+     * Compile the partitions of each level at the same time, each one with its own pruned class path.
+     * <p> When a class can't be found the partition is compiled again with the complete class path.
+     * @param levels - the partitions of each level in compile order.
+     * @param classPath - the path where the class files are placed.
+     * @param assets - the pruned class path entries separated by ; of each partition.
+     * @param fallbackAssets - the complete class path entries separated by ;.
+     * @param compileFlags - the flags to pass to the compiler separated by spaces.
+     * @param sourcePath - the root path of the source files.
+     * @param jobs - the max number of partitions to compile at the same time.
+     * @return true if the compilation succeed, false otherwise.
+     */
+    public boolean compile(List<List<List<String>>> levels, String classPath, Function<List<String>, String> assets,
+            String fallbackAssets, String compileFlags, String sourcePath, int jobs) {
+        if(!isAvailable()) return false;
+        try {
+            Files.createDirectories(Paths.get(classPath));
+        } catch(IOException e) {
+            e.printStackTrace();
+            return false;
+        }
+        int threads = Math.max(1, jobs);
+        // the file managers are not thread safe, so each running task takes one from the pool.
+        BlockingQueue<StandardJavaFileManager> managers = new LinkedBlockingQueue<>();
+        managers.add(fileManager);
+        for(int i=1; i<threads; ++i) {
+            managers.add(compiler.getStandardFileManager(null, Locale.getDefault(), StandardCharsets.UTF_8));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        boolean success = true;
+        try {
+            for(int i=0; i<levels.size() && success; ++i) {
+                List<List<String>> level = levels.get(i);
+                System.console().printf(CONSOLE_FORMAT, "Info", String.format(
+                            "Compiling level %s with %s partitions in-process.", i + 1, level.size()));
+                Path output = Files.createTempDirectory(Files.createDirectories(
+                            Paths.get(classPath, GraphOperation.STATE_DIRECTORY)), "level");
+                List<String> fallbackOptions = getPartitionOptions(output.toString(), classPath, fallbackAssets,
+                        compileFlags, sourcePath);
+                List<Future<Boolean>> results = new ArrayList<>();
+                for(List<String> partition: level) {
+                    List<String> options = getPartitionOptions(output.toString(), classPath, assets.apply(partition),
+                            compileFlags, sourcePath);
+                    results.add(executor.submit(() -> {
+                        StandardJavaFileManager manager = managers.take();
+                        try {
+                            return runTask(manager, partition, options, fallbackOptions);
+                        } finally {
+                            managers.add(manager);
+                        }
+                    }));
+                }
+                // every partition finish before its output is moved.
+                for(Future<Boolean> r: results) {
+                    try {
+                        success = r.get() && success;
+                    } catch(ExecutionException e) {
+                        e.printStackTrace();
+                        success = false;
+                    }
+                }
+                moveOutput(output, Paths.get(classPath));
+            }
+        } catch(IOException e) {
+            e.printStackTrace();
+            success = false;
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+            success = false;
+        } finally {
+            executor.shutdown();
+            managers.remove(fileManager);
+            for(StandardJavaFileManager m: managers) {
+                try {
+                    m.close();
+                } catch(IOException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+        return success;
+    }
+    private List<String> getOptions(String classPath, String assets, String compileFlags) {
+        List<String> options = new ArrayList<>();
+        options.add("-d");
+        options.add(classPath);
+        for(String f: compileFlags.trim().split("\\s+")) {
+            if(!f.isBlank()) options.add(f);
+        }
+        String prepared = prepareAssets(assets);
+        if(!prepared.isBlank()) {
+            options.add("-cp");
+            options.add(prepared);
+        }
+        return options;
+    }
+    private List<String> getPartitionOptions(String output, String classPath, String assets, String compileFlags,
+            String sourcePath) {
+        List<String> options = getOptions(output, classPath + ";" + assets, compileFlags);
+        options.add("-sourcepath");
+        options.add(sourcePath);
+        options.add("-implicit:none");
+        return options;
+    }
+    private boolean runTask(StandardJavaFileManager manager, List<String> sourceFiles, List<String> options,
+            List<String> fallbackOptions) {
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        StringWriter output = new StringWriter();
+        Iterable<? extends JavaFileObject> units = manager.getJavaFileObjectsFromStrings(sourceFiles);
+        boolean success = compiler.getTask(output, manager, diagnostics, options, null, units).call();
+        if(!success && !options.equals(fallbackOptions) && hasMissingClasses(diagnostics.getDiagnostics())) {
+            System.console().printf(CONSOLE_FORMAT, "Info", "A class is missing from the pruned class path, compiling again with every lib dependency.");
+            return runTask(manager, sourceFiles, fallbackOptions, fallbackOptions);
+        }
+
+        for(Diagnostic<? extends JavaFileObject> d: diagnostics.getDiagnostics()) {
+            System.console().printf(CONSOLE_FORMAT, getDiagnosticKind(d), formatDiagnostic(d));
+        }
+        if(!output.toString().isBlank()) {
+            System.console().printf("%s%n", output.toString().trim());
+        }
+        return success;
+    }
+    /**
+     * Move the class files of a level into the class path and remove its temporary directory.
+     * @param output - the temporary directory of the level.
+     * @param classPath - the path where the class files are placed.
+     */
+    private void moveOutput(Path output, Path classPath) throws IOException {
+        List<Path> files;
+        try (Stream<Path> s = Files.walk(output)) {
+            files = s.sorted(Comparator.reverseOrder()).toList();
+        }
+        // the files come before their directories, so each directory is empty when its removed.
+        for(Path p: files) {
+            if(Files.isDirectory(p)) {
+                Files.delete(p);
+                continue;
+            }
+            Path target = classPath.resolve(output.relativize(p));
+            Files.createDirectories(target.getParent());
+            Files.move(p, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+    private boolean hasMissingClasses(List<Diagnostic<? extends JavaFileObject>> diagnostics) {
+        for(Diagnostic<? extends JavaFileObject> d: diagnostics) {
+            if(d.getKind() != Diagnostic.Kind.ERROR || d.getCode() == null) continue;
+            for(String c: MISSING_CLASS_CODES) {
+                if(d.getCode().startsWith(c)) return true;
+            }
+        }
+        return false;
+    }
+    /**
+     * Give the class path entries the format of the current operating system.
+     * @param assets - the class path entries separated by ;.
+     * @return the entries separated by the platform path separator.
+     */
+    private String prepareAssets(String assets) {
+        List<String> entries = new ArrayList<>();
+        for(String a: assets.split(";")) {
+            if(!a.isBlank()) entries.add(a.trim());
+        }
+        return String.join(File.pathSeparator, entries);
+    }
+    private String getDiagnosticKind(Diagnostic<? extends JavaFileObject> diagnostic) {
+        return switch(diagnostic.getKind()) {
+            case ERROR -> "Error";
+            case WARNING, MANDATORY_WARNING -> "Warning";
+            default -> "Info";
+        };
+    }
+    private String formatDiagnostic(Diagnostic<? extends JavaFileObject> diagnostic) {
+        String message = diagnostic.getMessage(Locale.getDefault());
+        if(diagnostic.getSource() == null) return message;
+        return String.format(
+                "%s:%s:%s%n => %s",
+                Paths.get(diagnostic.getSource().toUri()).normalize(),
+                diagnostic.getLineNumber(),
+                diagnostic.getColumnNumber(),
+                message
+        );
+    }
+}
@@ -0,0 +1,166 @@
+package application.operations;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+public class DaemonOperation {
+
+    public static final String DEFAULT_SOCKET_PATH = ".javabuild/daemon.sock";
+    private static final String CONSOLE_FORMAT = "[%s] %s%n";
+    private static final String STOP_COMMAND = "--stop";
+    private static final String EXECUTED_REPLY = "Daemon executed: ";
+    private static final String FAILED_REPLY = "Daemon failed: ";
+    /** The status of {@link #sendArgs(String[])} when there is no daemon running. */
+    public static final int NOT_RUNNING = -1;
+
+    private Path socketPath;
+
+    public DaemonOperation() {
+        socketPath = Paths.get(DEFAULT_SOCKET_PATH);
+    }
+    /**
+     * Create an instance of this class with a given socket file.
+     * @param socketURI - the unix domain socket file used to communicate with the daemon.
+     */
+    public DaemonOperation(String socketURI) {
+        socketPath = Paths.get(socketURI);
+    }
+
+    /**
+     * Start the daemon and keep it listening for client arguments.
+     * <p> Each client request is handled one at a time to avoid concurrent builds over the same project.
+     * <p> A client request with only --stop closes the daemon.
+     * <p> The reply tells the client if the arguments were executed or failed.
+     * @param handler - the predicate that executes the client arguments and returns true if they succeed.
+     */
+    public void start(Predicate<String[]> handler) {
+        try {
+            if(socketPath.getParent() != null) Files.createDirectories(socketPath.getParent());
+            if(isRunning()) {
+                System.console().printf(CONSOLE_FORMAT, "Warning", "The daemon is already running on " + socketPath);
+                return;
+            }
+            Files.deleteIfExists(socketPath);
+        } catch(IOException e) {
+            e.printStackTrace();
+            return;
+        }
+        try (ServerSocketChannel server = ServerSocketChannel.open(StandardProtocolFamily.UNIX)) {
+            server.bind(UnixDomainSocketAddress.of(socketPath));
+            System.console().printf(CONSOLE_FORMAT, "Info", "Daemon listening on " + socketPath);
+            boolean running = true;
+            while(running) {
+                try (SocketChannel client = server.accept()) {
+                    String[] args = readArgs(client);
+                    if(args.length == 0) continue;
+                    if(args.length == 1 && args[0].equals(STOP_COMMAND)) {
+                        running = false;
+                        writeReply(client, "Daemon stopped.");
+                        continue;
+                    }
+                    System.console().printf(CONSOLE_FORMAT, "Daemon", String.join(" ", args));
+                    try {
+                        String reply = handler.test(args) ? EXECUTED_REPLY : FAILED_REPLY;
+                        writeReply(client, reply + String.join(" ", args));
+                    } catch(RuntimeException e) {
+                        e.printStackTrace();
+                        writeReply(client, FAILED_REPLY + e.getMessage());
+                    }
+                } catch(IOException e) {
+                    e.printStackTrace();
+                }
+            }
+        } catch(IOException e) {
+            e.printStackTrace();
+        } finally {
+            try {
+                Files.deleteIfExists(socketPath);
+            } catch(IOException e) {
+                e.printStackTrace();
+            }
+        }
+        System.console().printf(CONSOLE_FORMAT, "Info", "Daemon stopped.");
+    }
+    /**
+     * Send the command line arguments to a running daemon.
+     * <p> When the socket file is present but no daemon is listening the file is removed.
+     * @param args - the command line arguments to execute.
+     * @return 0 if the daemon executed the arguments, 1 if they failed or {@link #NOT_RUNNING} if there is no daemon running.
+     */
+    public int sendArgs(String[] args) {
+        if(!Files.exists(socketPath)) return NOT_RUNNING;
+        try (SocketChannel channel = SocketChannel.open(UnixDomainSocketAddress.of(socketPath))) {
+            OutputStream output = Channels.newOutputStream(channel);
+            output.write(String.join("\n", args).getBytes(StandardCharsets.UTF_8));
+            output.flush();
+            channel.shutdownOutput();
+            int status = 0;
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(Channels.newInputStream(channel), StandardCharsets.UTF_8))) {
+                String line;
+                while((line = reader.readLine()) != null) {
+                    boolean failed = line.startsWith(FAILED_REPLY);
+                    if(failed) status = 1;
+                    System.console().printf(CONSOLE_FORMAT, failed ? "Error" : "Info", line);
+                }
+            }
+            return status;
+        } catch(IOException e) {
+            try {
+                Files.deleteIfExists(socketPath);
+            } catch(IOException ex) {
+                ex.printStackTrace();
+            }
+        }
+        return NOT_RUNNING;
+    }
+    /**
+     * Stop the running daemon if any.
+     * @return true if the daemon was stopped, false if there is no daemon running.
+     */
+    public boolean stop() {
+        return sendArgs(new String[] {STOP_COMMAND}) != NOT_RUNNING;
+    }
+    /**
+     * Find if there is a daemon listening on the socket file.
+     * @return true if a connection can be made, false otherwise.
+     */
+    public boolean isRunning() {
+        if(!Files.exists(socketPath)) return false;
+        try (SocketChannel channel = SocketChannel.open(UnixDomainSocketAddress.of(socketPath))) {
+            return channel.isConnected();
+        } catch(IOException e) {
+            return false;
+        }
+    }
+    private String[] readArgs(SocketChannel client) throws IOException {
+        List<String> args = new ArrayList<>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(Channels.newInputStream(client), StandardCharsets.UTF_8));
+        String line;
+        while((line = reader.readLine()) != null) {
+            if(!line.isEmpty()) args.add(line);
+        }
+        return args.toArray(new String[0]);
+    }
+    private void writeReply(SocketChannel client, String reply) throws IOException {
+        OutputStream output = Channels.newOutputStream(client);
+        output.write(String.format("%s%n", reply).getBytes(StandardCharsets.UTF_8));
+        output.flush();
+    }
+}
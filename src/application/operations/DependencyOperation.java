@@ -0,0 +1,525 @@
+package application.operations;
+
+import java.io.IOException;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.xml.sax.SAXException;
+
+import application.models.ArtifactModel;
+import application.models.DependencyModel;
+import application.models.LibJarModel;
+import application.models.PomModel;
+
+/**
+ * Resolve Maven coordinates against a local repository and copy the resolved .jar files into the lib directory.
+ * <p> The pom files are read with their parents, properties and managed versions, and the transitive dependencies
+ * with compile or runtime scope are followed level by level, reading the pom files of each level in parallel.
+ * <p> When the same group:artifact is found with different versions the nearest one to the requested artifacts wins,
+ * and on the same level the first declared one, like Maven does.
+ * <p> The result is written to the lockfile, so the next executions with the same artifacts don't read any pom file.
+ */
+public class DependencyOperation {
+
+    public static final String LOCK_FILE = "dependencies.lock";
+    private static final String ROOT_KEY = "root";
+    private static final String JAR_KEY = "jar";
+    private static final Set<String> TRANSITIVE_SCOPES = Set.of("compile", "runtime");
+    private static final Set<String> TRANSITIVE_TYPES = Set.of("jar", "pom", "bundle");
+    private static final Pattern PROPERTY = Pattern.compile("\\$\\{([^}]+)\\}");
+    private static final int MAX_INTERPOLATION = 10;
+
+    private Path repository;
+    private String libPath;
+    private Path lockFile;
+    private FileOperation fileOperation;
+    // the effective pom files read during this execution by its coordinates.
+    private Map<String, PomModel> poms;
+    // the requested artifacts and the resolved ones of the lockfile.
+    private List<ArtifactModel> roots;
+    private Map<String, String[]> locked;
+
+    private record Candidate(ArtifactModel artifact, Set<String> exclusions) {
+    }
+
+    /**
+     * Create the dependency resolution of a local repository.
+     * @param repositoryPath - the root directory of the repository in the Maven layout, like ~/.m2/repository.
+     * @param libPath - the path where the .jar dependencies are copied.
+     * @param fileOperation - the file operation used to find the .jar files already copied.
+     */
+    public DependencyOperation(String repositoryPath, String libPath, FileOperation fileOperation) {
+        repository = Paths.get(repositoryPath);
+        this.libPath = libPath;
+        this.fileOperation = fileOperation;
+        lockFile = Paths.get(LOCK_FILE);
+        poms = new ConcurrentHashMap<>();
+        roots = new ArrayList<>();
+        locked = new LinkedHashMap<>();
+    }
+
+    /**
+     * Add the artifact and its transitive dependencies to the lib directory.
+     * <p> The artifacts of the lockfile are resolved again with the new one, a new version of a locked artifact replaces it.
+     * <p> When the artifact is already locked the resolution is skipped and only the .jar files are verified.
+     * @param coordinates - the group:artifact:version coordinates.
+     * @return true if the dependencies were added, false otherwise.
+     */
+    public boolean add(String coordinates) {
+        ArtifactModel artifact = ArtifactModel.parse(coordinates);
+        if(artifact == null) {
+            System.console().printf("[Error] Invalid coordinates, use group:artifact:version%n => | %s |%n", coordinates);
+            return false;
+        }
+        load();
+        List<ArtifactModel> requested = new ArrayList<>(roots);
+        requested.removeIf(r -> r.getKey().equals(artifact.getKey()));
+        int index = roots.stream().map(ArtifactModel::getKey).toList().indexOf(artifact.getKey());
+        requested.add(index == -1 ? requested.size() : index, artifact);
+        if(requested.equals(roots)) {
+            System.console().printf("[Info] %s is locked, skipping the resolution.%n", artifact.getCoordinates());
+            return sync();
+        }
+        Optional<List<ArtifactModel>> resolved = resolve(requested);
+        if(resolved.isEmpty()) return false;
+        return install(requested, resolved.get());
+    }
+    /**
+     * Copy the .jar files of the lockfile that are missing or modified in the lib directory.
+     * <p> No pom file is read, the .jar files are taken from the repository by its locked coordinates.
+     * @return true if the lib directory has every locked .jar file, false otherwise.
+     */
+    public boolean sync() {
+        load();
+        if(locked.isEmpty() && !Files.exists(lockFile)) {
+            System.console().printf("[Error] There is no %s, use --add group:artifact:version to create it%n", LOCK_FILE);
+            return false;
+        }
+        Map<String, String> current = getLibHashes();
+        AtomicBoolean success = new AtomicBoolean(true);
+        locked.values().parallelStream().forEach(l -> {
+            if(l[2].equals(current.get(l[3]))) return;
+            ArtifactModel artifact = ArtifactModel.parse(l[1]);
+            Optional<String> hash = copyJar(artifact, Paths.get(l[3]));
+            if(hash.isEmpty()) {
+                success.set(false);
+            } else if(!hash.get().equals(l[2])) {
+                System.console().printf("[Error] The content of %s doesn't match the lockfile%n => | %s |%n",
+                        artifact.getCoordinates(), artifact.getFile(repository, ".jar"));
+                success.set(false);
+            }
+        });
+        if(success.get()) System.console().printf("[Info] %s locked dependencies are present in %s%n", locked.size(), libPath);
+        return success.get();
+    }
+    /**
+     * Resolve the transitive dependencies of the requested artifacts.
+     * @param requested - the artifacts to resolve, the first ones win the conflicts of the same level.
+     * @return the resolved artifacts with a .jar file or empty if the resolution failed.
+     */
+    private Optional<List<ArtifactModel>> resolve(List<ArtifactModel> requested) {
+        Map<String, ArtifactModel> selected = new LinkedHashMap<>();
+        Set<String> pomOnly = new HashSet<>();
+        List<Candidate> level = new ArrayList<>();
+        for(ArtifactModel r: requested) {
+            Optional<ArtifactModel> artifact = resolveVersion(r);
+            if(artifact.isEmpty()) return Optional.empty();
+            level.add(new Candidate(artifact.get(), Set.of()));
+        }
+        while(!level.isEmpty()) {
+            List<Candidate> accepted = new ArrayList<>();
+            for(Candidate n: level) {
+                ArtifactModel chosen = selected.get(n.artifact().getKey());
+                if(chosen == null) {
+                    selected.put(n.artifact().getKey(), n.artifact());
+                    accepted.add(n);
+                } else if(!chosen.version().equals(n.artifact().version())) {
+                    System.console().printf("[Info] %s omitted for conflict with %s%n",
+                            n.artifact().getCoordinates(), chosen.version());
+                }
+            }
+            // the pom files of the level don't depend on each other.
+            accepted.parallelStream().forEach(n -> readPom(n.artifact()));
+            List<Candidate> next = new ArrayList<>();
+            for(Candidate n: accepted) {
+                PomModel pom = poms.get(n.artifact().getCoordinates());
+                if(pom == null) continue;
+                if(pom.packaging().equals("pom")) pomOnly.add(n.artifact().getKey());
+                for(DependencyModel d: pom.dependencies()) {
+                    if(!TRANSITIVE_SCOPES.contains(d.scope()) || !TRANSITIVE_TYPES.contains(d.type()) || d.optional()) continue;
+                    if(isExcluded(n.exclusions(), d.artifact())) continue;
+                    Optional<ArtifactModel> artifact = resolveVersion(d.artifact());
+                    if(artifact.isEmpty()) continue;
+                    Set<String> exclusions = new HashSet<>(n.exclusions());
+                    exclusions.addAll(d.exclusions());
+                    next.add(new Candidate(artifact.get(), exclusions));
+                }
+            }
+            level = next;
+        }
+        List<ArtifactModel> resolved = new ArrayList<>();
+        for(ArtifactModel a: selected.values()) {
+            if(!pomOnly.contains(a.getKey())) resolved.add(a);
+        }
+        System.console().printf("[Info] %s dependencies resolved from %s%n", resolved.size(), repository);
+        return Optional.of(resolved);
+    }
+    /**
+     * Copy the resolved .jar files into the lib directory, remove the ones of the previous lockfile
+     * that were not resolved again, and write the new lockfile.
+     */
+    private boolean install(List<ArtifactModel> requested, List<ArtifactModel> resolved) {
+        Map<String, String> current = getLibHashes();
+        Map<String, String[]> installed = new ConcurrentHashMap<>();
+        AtomicBoolean success = new AtomicBoolean(true);
+        resolved.parallelStream().forEach(a -> {
+            Path destination = getLibFile(a);
+            String[] previous = locked.get(a.getCoordinates());
+            Optional<String> hash = previous != null && previous[2].equals(current.get(destination.toString())) ?
+                Optional.of(previous[2]) :
+                copyJar(a, destination);
+            if(hash.isEmpty()) {
+                success.set(false);
+                return;
+            }
+            installed.put(a.getCoordinates(), new String[] {JAR_KEY, a.getCoordinates(), hash.get(), destination.toString()});
+        });
+        if(!success.get()) return false;
+        for(String[] l: locked.values()) {
+            if(installed.containsKey(l[1])) continue;
+            try {
+                Path file = Paths.get(l[3]);
+                Files.deleteIfExists(file);
+                if(file.getParent() != null && isEmpty(file.getParent())) Files.delete(file.getParent());
+                System.console().printf("[Info] Removing %s%n", l[1]);
+            } catch(IOException e) {
+                e.printStackTrace();
+            }
+        }
+        roots = requested;
+        locked = new LinkedHashMap<>();
+        resolved.forEach(a -> locked.put(a.getCoordinates(), installed.get(a.getCoordinates())));
+        save();
+        System.console().printf("[Info] %s dependencies locked in %s%n", locked.size(), LOCK_FILE);
+        return true;
+    }
+    /**
+     * Copy the .jar file of the artifact from the repository.
+     * @return the content hash of the copied file or empty if it couldn't be copied.
+     */
+    private Optional<String> copyJar(ArtifactModel artifact, Path destination) {
+        Path source = artifact.getFile(repository, ".jar");
+        if(!Files.exists(source)) {
+            System.console().printf("[Error] %s is not in the local repository%n => | %s |%n", artifact.getCoordinates(), source);
+            return Optional.empty();
+        }
+        try {
+            Files.createDirectories(destination.getParent());
+            Files.copy(source, destination, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.COPY_ATTRIBUTES);
+            System.console().printf("[Info] Copying %n => %s into | %s |%n", artifact.getCoordinates(), destination);
+            return Optional.of(HexFormat.of().formatHex(StateOperation.hash(destination)));
+        } catch(IOException e) {
+            e.printStackTrace();
+        }
+        return Optional.empty();
+    }
+    /**
+     * Get the lib file of the artifact, the .jar file is placed in a directory with its same name.
+     */
+    private Path getLibFile(ArtifactModel artifact) {
+        String name = artifact.getFileName("");
+        return Paths.get(libPath, name, name + ".jar").normalize();
+    }
+    /**
+     * Get the content hash of the lib .jar files from the lib catalog, which only reads the modified ones.
+     */
+    private Map<String, String> getLibHashes() {
+        Map<String, String> hashes = new HashMap<>();
+        for(LibJarModel j: fileOperation.getCatalog(libPath).getJars()) {
+            hashes.put(Paths.get(j.path()).normalize().toString(), j.hash());
+        }
+        return hashes;
+    }
+    private boolean isExcluded(Set<String> exclusions, ArtifactModel artifact) {
+        return exclusions.contains(artifact.getKey()) ||
+            exclusions.contains(artifact.groupId() + ":*") ||
+            exclusions.contains("*:" + artifact.artifactId()) ||
+            exclusions.contains("*:*");
+    }
+    /**
+     * Get the artifact with a version of the repository when its version is a range like [1.0,2.0).
+     * <p> The highest version inside the range is used.
+     * @return the artifact with a fixed version or empty if no version matches.
+     */
+    private Optional<ArtifactModel> resolveVersion(ArtifactModel artifact) {
+        String range = artifact.version();
+        if(!range.startsWith("[") && !range.startsWith("(")) return Optional.of(artifact);
+        Path versions = repository.resolve(artifact.groupId().replace(".", "/")).resolve(artifact.artifactId());
+        Optional<String> version = Optional.empty();
+        if(Files.isDirectory(versions)) {
+            try (Stream<Path> s = Files.list(versions)) {
+                version = s
+                    .filter(Files::isDirectory)
+                    .map(p -> p.getFileName().toString())
+                    .filter(v -> isInRange(v, range))
+                    .max(this::compareVersions);
+            } catch(IOException e) {
+                e.printStackTrace();
+            }
+        }
+        if(version.isEmpty()) {
+            System.console().printf("[Error] No version of %s in the local repository matches %s%n", artifact.getKey(), range);
+            return Optional.empty();
+        }
+        return Optional.of(new ArtifactModel(artifact.groupId(), artifact.artifactId(), version.get()));
+    }
+    private boolean isInRange(String version, String range) {
+        // only the first range is used when there are more like [1.0,2.0),[3.0,).
+        int end = Math.max(range.indexOf(']'), range.indexOf(')'));
+        if(end == -1) return false;
+        String bounds = range.substring(1, end);
+        if(!bounds.contains(",")) return version.equals(bounds.trim());
+        String lower = bounds.substring(0, bounds.indexOf(',')).trim();
+        String upper = bounds.substring(bounds.indexOf(',') + 1).trim();
+        if(!lower.isEmpty()) {
+            int c = compareVersions(version, lower);
+            if(c < 0 || (c == 0 && range.startsWith("("))) return false;
+        }
+        if(!upper.isEmpty()) {
+            int c = compareVersions(version, upper);
+            if(c > 0 || (c == 0 && range.charAt(end) == ')')) return false;
+        }
+        return true;
+    }
+    /**
+     * Compare two versions by its numeric parts, a qualifier like -beta is lower than the release.
+     */
+    private int compareVersions(String first, String second) {
+        String[] a = first.split("[.-]");
+        String[] b = second.split("[.-]");
+        for(int i=0; i<Math.max(a.length, b.length); ++i) {
+            if(i >= a.length) return isNumber(b[i]) ? -1 : 1;
+            if(i >= b.length) return isNumber(a[i]) ? 1 : -1;
+            int c;
+            if(isNumber(a[i]) && isNumber(b[i])) {
+                c = Long.compare(Long.parseLong(a[i]), Long.parseLong(b[i]));
+            } else if(isNumber(a[i]) || isNumber(b[i])) {
+                c = isNumber(a[i]) ? 1 : -1;
+            } else {
+                c = a[i].compareToIgnoreCase(b[i]);
+            }
+            if(c != 0) return c;
+        }
+        return 0;
+    }
+    private boolean isNumber(String part) {
+        return !part.isEmpty() && part.length() < 19 && part.chars().allMatch(Character::isDigit);
+    }
+    /**
+     * Read the effective pom file of the artifact merging its parents.
+     * <p> The pom files are kept by its coordinates, so the shared parents are read once.
+     * @return the pom or null if its not in the repository.
+     */
+    private PomModel readPom(ArtifactModel artifact) {
+        PomModel cached = poms.get(artifact.getCoordinates());
+        if(cached != null) return cached;
+        Path pomFile = artifact.getFile(repository, ".pom");
+        if(!Files.exists(pomFile)) {
+            System.console().printf("[Warning] The pom of %s is not in the local repository, its dependencies are ignored%n",
+                    artifact.getCoordinates());
+            return null;
+        }
+        Element project;
+        try {
+            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+            factory.setExpandEntityReferences(false);
+            project = factory.newDocumentBuilder().parse(pomFile.toFile()).getDocumentElement();
+        } catch(IOException | ParserConfigurationException | SAXException e) {
+            System.console().printf("[Warning] The pom of %s couldn't be read%n => | %s |%n", artifact.getCoordinates(), e.getMessage());
+            return null;
+        }
+        PomModel parent = null;
+        Element parentElement = getChild(project, "parent");
+        if(parentElement != null) {
+            parent = readPom(new ArtifactModel(getText(parentElement, "groupId", ""),
+                        getText(parentElement, "artifactId", ""), getText(parentElement, "version", "")));
+        }
+        Map<String, String> properties = new HashMap<>();
+        Map<String, DependencyModel> management = new LinkedHashMap<>();
+        // the dependencies declared by the child replace the ones of the parent with the same key.
+        Map<String, DependencyModel> dependencies = new LinkedHashMap<>();
+        if(parent != null) {
+            properties.putAll(parent.properties());
+            management.putAll(parent.management());
+            for(DependencyModel d: parent.dependencies()) {
+                dependencies.put(d.artifact().getKey(), d);
+            }
+            properties.put("project.parent.groupId", parent.artifact().groupId());
+            properties.put("project.parent.version", parent.artifact().version());
+        }
+        String groupId = getText(project, "groupId", parent == null ? artifact.groupId() : parent.artifact().groupId());
+        String version = getText(project, "version", parent == null ? artifact.version() : parent.artifact().version());
+        Element propertiesElement = getChild(project, "properties");
+        if(propertiesElement != null) {
+            for(Element p: getChildren(propertiesElement)) {
+                properties.put(p.getTagName(), p.getTextContent().trim());
+            }
+        }
+        properties.put("project.groupId", groupId);
+        properties.put("project.artifactId", artifact.artifactId());
+        properties.put("project.version", version);
+        properties.put("pom.version", version);
+        Element managementElement = getChild(project, "dependencyManagement");
+        List<DependencyModel> imports = new ArrayList<>();
+        for(DependencyModel d: readDependencies(getChild(managementElement, "dependencies"), properties, Map.of())) {
+            if(d.scope().equals("import")) {
+                imports.add(d);
+            } else {
+                management.put(d.artifact().getKey(), d);
+            }
+        }
+        // the imported managed versions don't replace the declared ones.
+        for(DependencyModel d: imports) {
+            PomModel bom = readPom(d.artifact());
+            if(bom != null) bom.management().forEach(management::putIfAbsent);
+        }
+        for(DependencyModel d: readDependencies(getChild(project, "dependencies"), properties, management)) {
+            dependencies.put(d.artifact().getKey(), d);
+        }
+        PomModel pom = new PomModel(new ArtifactModel(groupId, artifact.artifactId(), version),
+                interpolate(getText(project, "packaging", "jar"), properties), properties, management,
+                new ArrayList<>(dependencies.values()));
+        poms.put(artifact.getCoordinates(), pom);
+        return pom;
+    }
+    /**
+     * Read the dependency elements, the missing version and scope are taken from the managed dependencies.
+     */
+    private List<DependencyModel> readDependencies(Element dependencies, Map<String, String> properties,
+            Map<String, DependencyModel> management) {
+        List<DependencyModel> read = new ArrayList<>();
+        if(dependencies == null) return read;
+        for(Element d: getChildren(dependencies)) {
+            if(!d.getTagName().equals("dependency")) continue;
+            String groupId = interpolate(getText(d, "groupId", ""), properties);
+            String artifactId = interpolate(getText(d, "artifactId", ""), properties);
+            DependencyModel managed = management.get(String.format("%s:%s", groupId, artifactId));
+            String version = interpolate(getText(d, "version", managed == null ? "" : managed.artifact().version()), properties);
+            String scope = interpolate(getText(d, "scope", managed == null ? "compile" : managed.scope()), properties);
+            if(version.isBlank() && !scope.equals("test") && !scope.equals("provided")) {
+                System.console().printf("[Warning] %s:%s has no version, its ignored%n", groupId, artifactId);
+                continue;
+            }
+            Set<String> exclusions = new HashSet<>();
+            if(managed != null) exclusions.addAll(managed.exclusions());
+            Element exclusionsElement = getChild(d, "exclusions");
+            if(exclusionsElement != null) {
+                for(Element e: getChildren(exclusionsElement)) {
+                    exclusions.add(String.format("%s:%s", interpolate(getText(e, "groupId", "*"), properties),
+                                interpolate(getText(e, "artifactId", "*"), properties)));
+                }
+            }
+            read.add(new DependencyModel(new ArtifactModel(groupId, artifactId, version), scope,
+                        interpolate(getText(d, "type", "jar"), properties),
+                        interpolate(getText(d, "optional", "false"), properties).equals("true"), exclusions));
+        }
+        return read;
+    }
+    private String interpolate(String value, Map<String, String> properties) {
+        String result = value;
+        for(int i=0; i<MAX_INTERPOLATION && result.contains("${"); ++i) {
+            Matcher matcher = PROPERTY.matcher(result);
+            StringBuilder replaced = new StringBuilder();
+            while(matcher.find()) {
+                String property = properties.get(matcher.group(1));
+                matcher.appendReplacement(replaced, Matcher.quoteReplacement(property == null ? matcher.group() : property));
+            }
+            matcher.appendTail(replaced);
+            if(replaced.toString().equals(result)) break;
+            result = replaced.toString();
+        }
+        return result;
+    }
+    private Element getChild(Element parent, String name) {
+        if(parent == null) return null;
+        for(Element e: getChildren(parent)) {
+            if(e.getTagName().equals(name)) return e;
+        }
+        return null;
+    }
+    private List<Element> getChildren(Element parent) {
+        List<Element> children = new ArrayList<>();
+        NodeList nodes = parent.getChildNodes();
+        for(int i=0; i<nodes.getLength(); ++i) {
+            if(nodes.item(i).getNodeType() == Node.ELEMENT_NODE) children.add((Element) nodes.item(i));
+        }
+        return children;
+    }
+    private String getText(Element parent, String name, String defaultValue) {
+        Element child = getChild(parent, name);
+        return child == null ? defaultValue : child.getTextContent().trim();
+    }
+    private boolean isEmpty(Path directory) throws IOException {
+        try (Stream<Path> s = Files.list(directory)) {
+            return s.findAny().isEmpty();
+        }
+    }
+    private void load() {
+        roots = new ArrayList<>();
+        locked = new LinkedHashMap<>();
+        if(!Files.exists(lockFile)) return;
+        try {
+            for(String line: Files.readAllLines(lockFile, StandardCharsets.UTF_8)) {
+                String[] parts = line.split("\t");
+                if(parts.length == 2 && parts[0].equals(ROOT_KEY) && ArtifactModel.parse(parts[1]) != null) {
+                    roots.add(ArtifactModel.parse(parts[1]));
+                } else if(parts.length == 4 && parts[0].equals(JAR_KEY) && ArtifactModel.parse(parts[1]) != null) {
+                    locked.put(parts[1], parts);
+                }
+            }
+        } catch(IOException e) {
+            e.printStackTrace();
+        }
+    }
+    private void save() {
+        StringBuilder lines = new StringBuilder();
+        for(ArtifactModel r: roots) {
+            lines.append(String.format("%s\t%s%n", ROOT_KEY, r.getCoordinates()));
+        }
+        for(String[] l: locked.values()) {
+            lines.append(String.format("%s%n", String.join("\t", l)));
+        }
+        try {
+            Files.writeString(lockFile, lines.toString(), StandardCharsets.UTF_8);
+        } catch(IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
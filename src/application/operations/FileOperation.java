@@ -1,11 +1,14 @@
 package application.operations;
 
 import application.utils.FileUtils;
+import application.utils.ProfileUtils;
+import application.utils.ProjectIndex;
 
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.io.File;
 
 import java.nio.file.Files;
@@ -25,9 +28,13 @@ public class FileOperation {
     };
 
     private FileUtils fileUtils;
+    private ProjectIndex projectIndex;
+    private Map<String, CatalogOperation> catalogs;
 
     public FileOperation() {
         fileUtils = new FileUtils();
+        projectIndex = new ProjectIndex();
+        catalogs = new ConcurrentHashMap<>();
     }
 
     /**
@@ -36,6 +43,8 @@ public class FileOperation {
      */
     public FileOperation(FileUtils fileUtils) {
         this.fileUtils = fileUtils;
+        projectIndex = new ProjectIndex();
+        catalogs = new ConcurrentHashMap<>();
     }
 
     /**
@@ -45,10 +54,17 @@ public class FileOperation {
      * @return the list with only file types.
      */
     public List<Path> getFiles(String pathURI, int level) {
-        return fileUtils.getPathContent(pathURI, level)
-            .parallelStream()
-            .filter(Files::isRegularFile)
-            .toList();
+        return projectIndex.getFiles(pathURI, level);
+    }
+    /**
+     * List of only file type content with the given extension.
+     * @param pathURI - the path to list its content.
+     * @param level - the nested level to reach.
+     * @param extension - the file extension like .java.
+     * @return the list with only file types that end with the extension.
+     */
+    public List<Path> getFiles(String pathURI, int level, String extension) {
+        return projectIndex.getFiles(pathURI, level, extension);
     }
     /**
      * List of only directory type content.
@@ -57,11 +73,22 @@ public class FileOperation {
      * @return the list with only directory types.
      */
     public List<Path> getDirNames(String pathURI, int level) {
-        return fileUtils.getPathContent(pathURI, level)
-            .parallelStream()
-            .filter(Files::isDirectory)
-            .filter(p -> fileUtils.countFiles(p.toString()) > 0)
-            .toList();
+        return projectIndex.getDirNames(pathURI, level);
+    }
+    /**
+     * Get the directory index used to list the path content.
+     * @return the project index.
+     */
+    public ProjectIndex getProjectIndex() {
+        return projectIndex;
+    }
+    /**
+     * Get the catalog of the lib .jar dependencies, its kept while this instance lives.
+     * @param libPath - the path where the dependencies are.
+     * @return the catalog of the lib directory.
+     */
+    public CatalogOperation getCatalog(String libPath) {
+        return catalogs.computeIfAbsent(libPath, l -> new CatalogOperation(l, this));
     }
     /**
      * Search in the path for a specific line.
@@ -74,11 +101,8 @@ public class FileOperation {
     public String getFileWithLine(String pathURI, String line, int level) {
         List<Path> paths = this.getFiles(pathURI, level);
         for(Path p: paths) {
-            String[] lines = fileUtils.getFileLines(p.toString()).split("\n");
-            for(String l: lines) {
-                if(l.trim().contains(line)) {
-                    return p.normalize().toString();
-                }
+            if(fileUtils.fileContainsLine(p.toString(), line.trim())) {
+                return p.normalize().toString();
             }
         }
         return "";
@@ -170,21 +194,22 @@ public class FileOperation {
      * @param fileName - the name of the file that other files depend on.
      */
     public void appendDependentFiles(Set<String> dependent, String pathURI, String packageName, String fileName) {
-
-        List<Path> paths = getFiles(pathURI, 0);
-        if(paths.isEmpty()) return;
-
-        String dirPackage = packageName.replace(fileName, "*");
-
-        for(Path p: paths) {
-            String[] lines = fileUtils.getFileLines(p.toString()).split("\n");
-            for(String l: lines) {
-                if(l.startsWith("import") && (l.trim().equals(packageName) || l.trim().equals(dirPackage))) {
-                    dependent.add(String.format("\"%s\"", p.normalize().toString()));
+        ProfileUtils.measure("dependency-scan", () -> {
+            List<Path> paths = getFiles(pathURI, 0, ".java");
+            if(paths.isEmpty()) return;
+
+            String dirPackage = packageName.replace(fileName, "*");
+
+            for(Path p: paths) {
+                String[] lines = fileUtils.getFileLines(p.toString()).split("\n");
+                for(String l: lines) {
+                    if(l.startsWith("import") && (l.trim().equals(packageName) || l.trim().equals(dirPackage))) {
+                        dependent.add(p.normalize().toString());
+                    }
                 }
-            }
 
-        }
+            }
+        });
     }
 
 }
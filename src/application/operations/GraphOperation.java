@@ -0,0 +1,402 @@
+package application.operations;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+import application.models.ClassModel;
+import application.utils.ClassFileUtils;
+
+/**
+ * Reverse dependency graph of the compiled classes.
+ * <p> The graph is stored in the class path and updated only with the class files that changed since the last update.
+ */
+public class GraphOperation {
+
+    public static final String STATE_DIRECTORY = ".javabuild";
+    public static final String GRAPH_FILE = "dependencies.graph";
+    public static final String ASSET_ABIS_FILE = "assets.abi";
+
+    private String classPath;
+    private String root;
+    private Path graphFile;
+    private Path assetAbisFile;
+    private ClassFileUtils classFileUtils;
+
+    // class internal name -> source file
+    private Map<String, String> classSources;
+    // class internal name -> referenced project classes
+    private Map<String, Set<String>> classDependencies;
+    // class internal name -> abi and constants hash
+    private Map<String, String> classAbis;
+    // classes removed by the updates and not reported yet, with the classes that referenced them.
+    private Map<String, Set<String>> removedClasses;
+
+    /**
+     * Create the graph of the given class path.
+     * @param classPath - the path where the class files are.
+     * @param root - the root path of the source files.
+     */
+    public GraphOperation(String classPath, String root) {
+        this.classPath = classPath;
+        this.root = root;
+        graphFile = Paths.get(classPath, STATE_DIRECTORY, GRAPH_FILE);
+        assetAbisFile = Paths.get(classPath, STATE_DIRECTORY, ASSET_ABIS_FILE);
+        classFileUtils = new ClassFileUtils();
+        classSources = new TreeMap<>();
+        classDependencies = new HashMap<>();
+        classAbis = new HashMap<>();
+        removedClasses = new HashMap<>();
+    }
+
+    /**
+     * Find if there is a stored graph to use.
+     * @return true if the graph file exists, false otherwise.
+     */
+    public boolean exists() {
+        return Files.exists(graphFile);
+    }
+    /**
+     * Load the stored graph.
+     * <p> Each line is: class name, source file, abi hash, constants hash and the referenced classes separated by tabs.
+     * @return this instance.
+     */
+    public GraphOperation load() {
+        classSources.clear();
+        classDependencies.clear();
+        classAbis.clear();
+        if(!exists()) return this;
+        try (BufferedReader reader = Files.newBufferedReader(graphFile, StandardCharsets.UTF_8)) {
+            String line;
+            while((line = reader.readLine()) != null) {
+                String[] columns = line.split("\t");
+                if(columns.length < 4) continue;
+                classSources.put(columns[0], columns[1]);
+                classAbis.put(columns[0], columns[2] + "\t" + columns[3]);
+                Set<String> dependencies = new HashSet<>();
+                for(int i=4; i<columns.length; ++i) {
+                    dependencies.add(columns[i]);
+                }
+                classDependencies.put(columns[0], dependencies);
+            }
+        } catch(IOException e) {
+            e.printStackTrace();
+        }
+        return this;
+    }
+    /**
+     * Update the graph with the class files modified after the last update and store it.
+     * <p> The classes whose class file was removed are removed from the graph,
+     * and their dependents are kept to be reported by {@link #getRemovedDependentFiles()}.
+     */
+    public void update() {
+        load();
+        long lastUpdate = exists() ? graphFile.toFile().lastModified() : 0;
+        Set<String> present = new HashSet<>();
+        Path classDirectory = Paths.get(classPath);
+        if(!Files.exists(classDirectory)) return;
+        try (Stream<Path> s = Files.walk(classDirectory)) {
+            List<Path> classFiles = s
+                .filter(p -> p.getFileName().toString().endsWith(".class"))
+                .toList();
+            for(Path p: classFiles) {
+                String name = classDirectory.relativize(p).toString()
+                    .replace(p.getFileSystem().getSeparator(), "/")
+                    .replace(".class", "");
+                present.add(name);
+                if(classSources.containsKey(name) && p.toFile().lastModified() <= lastUpdate) continue;
+                ClassModel model = classFileUtils.readClass(p);
+                if(model == null) continue;
+                classSources.put(model.name(), Paths.get(root).resolve(model.getSourcePath()).normalize().toString());
+                // only the project classes are relevant for the re-compilation.
+                Set<String> dependencies = new HashSet<>(model.dependencies());
+                dependencies.removeIf(d -> d.startsWith("java/") || d.startsWith("javax/"));
+                classDependencies.put(model.name(), dependencies);
+                classAbis.put(model.name(), model.abi() + "\t" + model.constants());
+            }
+        } catch(IOException e) {
+            e.printStackTrace();
+            return;
+        }
+        for(String name: classSources.keySet()) {
+            if(!present.contains(name)) removedClasses.put(name, new HashSet<>());
+        }
+        classSources.keySet().retainAll(present);
+        classDependencies.keySet().retainAll(present);
+        for(Map.Entry<String, Set<String>> e: classDependencies.entrySet()) {
+            for(String d: e.getValue()) {
+                if(removedClasses.containsKey(d)) removedClasses.get(d).add(e.getKey());
+            }
+        }
+        classAbis.keySet().retainAll(present);
+        save();
+    }
+    /**
+     * Get the source files that depend directly or transitively on the given source files.
+     * @param sourceFiles - the modified source files.
+     * @return the dependent source files, without the given ones.
+     */
+    public Set<String> getDependentFiles(Set<String> sourceFiles) {
+        return getDependentFiles(sourceFiles, true);
+    }
+    /**
+     * Get the source files that depend on the given source files.
+     * @param sourceFiles - the modified source files.
+     * @param transitive - to include or not the files that depend on the dependent files.
+     * @return the dependent source files, without the given ones.
+     */
+    public Set<String> getDependentFiles(Set<String> sourceFiles, boolean transitive) {
+        Map<String, Set<String>> reverse = getReverseSourceGraph();
+        Set<String> dependent = new HashSet<>();
+        Deque<String> pending = new ArrayDeque<>(sourceFiles);
+        while(!pending.isEmpty()) {
+            String current = pending.pop();
+            for(String d: reverse.getOrDefault(current, Set.of())) {
+                if(!sourceFiles.contains(d) && dependent.add(d) && transitive) {
+                    pending.push(d);
+                }
+            }
+        }
+        return dependent;
+    }
+    /**
+     * Get the source files that reference the classes removed since the last call, they must be compiled again.
+     * <p> Each removed class is reported once.
+     * @return the existing source files that depend on a removed class.
+     */
+    public Set<String> getRemovedDependentFiles() {
+        Set<String> dependent = new HashSet<>();
+        for(Set<String> classes: removedClasses.values()) {
+            for(String c: classes) {
+                String source = classSources.get(c);
+                if(source != null && Files.exists(Paths.get(source))) dependent.add(source);
+            }
+        }
+        removedClasses.clear();
+        return dependent;
+    }
+    /**
+     * Get the source files of the graph that no longer exist.
+     * @return the removed source files.
+     */
+    public Set<String> getRemovedSourceFiles() {
+        Set<String> removed = new HashSet<>();
+        for(String source: new HashSet<>(classSources.values())) {
+            if(!Files.exists(Paths.get(source))) removed.add(source);
+        }
+        return removed;
+    }
+    /**
+     * Delete the class files of the given source files, so the classes they no longer declare
+     * are not left in the class path when they are compiled again.
+     * @param sourceFiles - the source files to compile or that were removed.
+     */
+    public void deleteClassFiles(Set<String> sourceFiles) {
+        for(Map.Entry<String, String> e: classSources.entrySet()) {
+            if(!sourceFiles.contains(e.getValue())) continue;
+            try {
+                Files.deleteIfExists(Paths.get(classPath, e.getKey() + ".class"));
+            } catch(IOException ex) {
+                ex.printStackTrace();
+            }
+        }
+    }
+    /**
+     * Get the abi and constants hash of the classes declared by the given source files.
+     * @param sourceFiles - the source files to get its classes.
+     * @return the class name and hash relation.
+     */
+    public Map<String, String> getAbis(Set<String> sourceFiles) {
+        Map<String, String> abis = new HashMap<>();
+        for(Map.Entry<String, String> e: classSources.entrySet()) {
+            if(sourceFiles.contains(e.getValue())) {
+                abis.put(e.getKey(), classAbis.getOrDefault(e.getKey(), ""));
+            }
+        }
+        return abis;
+    }
+    /**
+     * Get the source files whose classes have a different abi than the previous one.
+     * <p> A class that is new or is not present anymore is taken as an abi change.
+     * @param previous - the class name and hash relation before the compilation.
+     * @param sourceFiles - the compiled source files.
+     * @return the source files with abi changes.
+     */
+    public Set<String> getAbiChangedFiles(Map<String, String> previous, Set<String> sourceFiles) {
+        Set<String> changed = new HashSet<>();
+        Map<String, String> current = getAbis(sourceFiles);
+        for(Map.Entry<String, String> e: current.entrySet()) {
+            String before = previous.get(e.getKey());
+            if(before == null || !getAbi(before).equals(getAbi(e.getValue()))) {
+                changed.add(classSources.get(e.getKey()));
+            }
+        }
+        for(String name: previous.keySet()) {
+            if(!current.containsKey(name) && classSources.containsKey(name)) changed.add(classSources.get(name));
+        }
+        return changed;
+    }
+    /**
+     * Find if any of the compile time constants of the given source files changed.
+     * <p> The constants are inlined by javac so the classes that use them are not present in the graph.
+     * @param previous - the class name and hash relation before the compilation.
+     * @param sourceFiles - the compiled source files.
+     * @return true if any constant changed, false otherwise.
+     */
+    public boolean hasConstantChanges(Map<String, String> previous, Set<String> sourceFiles) {
+        for(Map.Entry<String, String> e: getAbis(sourceFiles).entrySet()) {
+            String before = previous.get(e.getKey());
+            if(before != null && !getConstants(before).equals(getConstants(e.getValue()))) {
+                return true;
+            }
+        }
+        return false;
+    }
+    /**
+     * Get the source files of this graph that reference the asset classes whose abi changed since it was recorded,
+     * like the tests that use a class of the project class path.
+     * <p> When a compile time constant of the asset classes changed every source file is returned,
+     * since the constants are inlined by javac.
+     * @param assetAbis - the current class name and hash relation of the asset classes.
+     * @return the source files to compile again, empty if the asset abis weren't recorded.
+     */
+    public Set<String> getAssetDependentFiles(Map<String, String> assetAbis) {
+        Set<String> changed = new HashSet<>();
+        for(Map.Entry<String, String> e: loadAssetAbis().entrySet()) {
+            String current = assetAbis.get(e.getKey());
+            if(current != null && getAbi(current).equals(getAbi(e.getValue()))) {
+                if(!getConstants(current).equals(getConstants(e.getValue()))) return new HashSet<>(classSources.values());
+                continue;
+            }
+            changed.add(e.getKey());
+        }
+        Set<String> dependent = new HashSet<>();
+        for(Map.Entry<String, Set<String>> e: classDependencies.entrySet()) {
+            if(e.getValue().stream().anyMatch(changed::contains)) dependent.add(classSources.get(e.getKey()));
+        }
+        dependent.remove(null);
+        return dependent;
+    }
+    /**
+     * Store the abi and constants hash of the asset classes this graph was compiled against.
+     * <p> Each line is: class name, abi hash and constants hash separated by tabs.
+     * @param assetAbis - the class name and hash relation of the asset classes.
+     */
+    public void saveAssetAbis(Map<String, String> assetAbis) {
+        try {
+            Files.createDirectories(assetAbisFile.getParent());
+            try (BufferedWriter writer = Files.newBufferedWriter(assetAbisFile, StandardCharsets.UTF_8)) {
+                for(Map.Entry<String, String> e: assetAbis.entrySet()) {
+                    writer.write(e.getKey());
+                    writer.write("\t");
+                    writer.write(e.getValue());
+                    writer.newLine();
+                }
+            }
+        } catch(IOException e) {
+            e.printStackTrace();
+        }
+    }
+    /**
+     * Get the abi and constants hash of a class.
+     * @param className - the class internal name.
+     * @return the hash or null if the class is not in the graph.
+     */
+    public String getClassAbi(String className) {
+        return classAbis.get(className);
+    }
+    /**
+     * Get the source file of each class in the graph.
+     * @return the class name and source file relation.
+     */
+    public Map<String, String> getClassSources() {
+        return classSources;
+    }
+    /**
+     * Get the abi and constants hash of each class in the graph.
+     * @return the class name and hash relation.
+     */
+    public Map<String, String> getClassAbis() {
+        return classAbis;
+    }
+    /**
+     * Get the classes referenced by each class in the graph.
+     * @return the class name and referenced classes relation.
+     */
+    public Map<String, Set<String>> getClassDependencies() {
+        return classDependencies;
+    }
+    /**
+     * Build the source file relation of: source file -> source files that reference it.
+     * @return the reverse graph at source file level.
+     */
+    private Map<String, Set<String>> getReverseSourceGraph() {
+        Map<String, Set<String>> reverse = new HashMap<>();
+        for(Map.Entry<String, Set<String>> e: classDependencies.entrySet()) {
+            String source = classSources.get(e.getKey());
+            for(String d: e.getValue()) {
+                String dependencySource = classSources.get(d);
+                if(dependencySource == null || dependencySource.equals(source)) continue;
+                reverse.computeIfAbsent(dependencySource, k -> new HashSet<>()).add(source);
+            }
+        }
+        return reverse;
+    }
+    private Map<String, String> loadAssetAbis() {
+        Map<String, String> abis = new HashMap<>();
+        if(!Files.exists(assetAbisFile)) return abis;
+        try (BufferedReader reader = Files.newBufferedReader(assetAbisFile, StandardCharsets.UTF_8)) {
+            String line;
+            while((line = reader.readLine()) != null) {
+                String[] columns = line.split("\t", 2);
+                if(columns.length == 2) abis.put(columns[0], columns[1]);
+            }
+        } catch(IOException e) {
+            e.printStackTrace();
+        }
+        return abis;
+    }
+    private String getAbi(String hashes) {
+        return hashes.split("\t", 2)[0];
+    }
+    private String getConstants(String hashes) {
+        String[] columns = hashes.split("\t", 2);
+        return columns.length == 2 ? columns[1] : "";
+    }
+    private void save() {
+        try {
+            Files.createDirectories(graphFile.getParent());
+            try (BufferedWriter writer = Files.newBufferedWriter(graphFile, StandardCharsets.UTF_8)) {
+                for(Map.Entry<String, String> e: classSources.entrySet()) {
+                    writer.write(e.getKey());
+                    writer.write("\t");
+                    writer.write(e.getValue());
+                    writer.write("\t");
+                    writer.write(classAbis.getOrDefault(e.getKey(), "\t"));
+                    for(String d: classDependencies.getOrDefault(e.getKey(), Set.of())) {
+                        writer.write("\t");
+                        writer.write(d);
+                    }
+                    writer.newLine();
+                }
+            }
+        } catch(IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package application.operations;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import application.agent.HotReloadAgent;
+import application.utils.ClassFileUtils;
+import application.utils.ZipWriter;
+
+/**
+ * Swap the re-compiled classes into a program started with the hot reload agent.
+ * <p> The class files are compared with the ones present when the program started or was last reloaded,
+ * when only method bodies changed the classes are redefined, otherwise the program must be restarted.
+ */
+public class HotReloadOperation {
+
+    public static final String AGENT_FILE = "agent.jar";
+    public static final String RELOAD_FILE = "reload.txt";
+    private static final long STATUS_TIMEOUT_MILLIS = 5000;
+    private static final long POLL_MILLIS = 50;
+
+    private Path classDirectory;
+    private Path stateDirectory;
+    private Path reloadFile;
+    private Path statusFile;
+    private ClassFileUtils classFileUtils;
+    // the last modified time and shape of each class file by its path.
+    private Map<Path, Long> modified;
+    private Map<Path, String> shapes;
+
+    /**
+     * Create the hot reload of the given class path.
+     * @param classPath - the path where the class files are.
+     */
+    public HotReloadOperation(String classPath) {
+        classDirectory = Paths.get(classPath);
+        stateDirectory = classDirectory.resolve(GraphOperation.STATE_DIRECTORY);
+        reloadFile = stateDirectory.resolve(RELOAD_FILE);
+        statusFile = stateDirectory.resolve(RELOAD_FILE + ".status");
+        classFileUtils = new ClassFileUtils();
+        modified = new HashMap<>();
+        shapes = new HashMap<>();
+    }
+
+    /**
+     * Write the agent .jar file and get the java option that loads it.
+     * @return the -javaagent option or empty string if the agent couldn't be written.
+     */
+    public String getAgentOption() {
+        Path agentFile = stateDirectory.resolve(AGENT_FILE);
+        String agentClass = HotReloadAgent.class.getName().replace(".", "/") + ".class";
+        try (InputStream input = HotReloadAgent.class.getResourceAsStream(HotReloadAgent.class.getSimpleName() + ".class")) {
+            if(input == null) {
+                System.console().printf("[Error] Couldn't find the agent class %s%n", agentClass);
+                return "";
+            }
+            Files.createDirectories(stateDirectory);
+            try (ZipWriter writer = new ZipWriter(agentFile, ZipWriter.STORED)) {
+                writer.writeFile("META-INF/MANIFEST.MF", String.format(
+                            "Manifest-Version: 1.0\r\nPremain-Class: %s\r\nCan-Redefine-Classes: true\r\n\r\n",
+                            HotReloadAgent.class.getName()).getBytes(StandardCharsets.UTF_8));
+                writer.writeFile(agentClass, input.readAllBytes());
+            }
+            Files.writeString(reloadFile, "", StandardCharsets.UTF_8);
+        } catch(IOException e) {
+            e.printStackTrace();
+            return "";
+        }
+        return String.format("-javaagent:'%s=%s'", agentFile.toAbsolutePath(), reloadFile.toAbsolutePath());
+    }
+    /**
+     * Record the class files as the ones loaded by the running program.
+     * <p> The shapes are read now because the compilation replaces the class files.
+     */
+    public void snapshot() {
+        modified.clear();
+        shapes.clear();
+        for(Path p: getClassFiles()) {
+            modified.put(p, p.toFile().lastModified());
+            shapes.put(p, classFileUtils.getShape(p));
+        }
+    }
+    /**
+     * Redefine the classes modified since the last snapshot in the running program.
+     * <p> Added classes are loaded by the program when its needed, so they are not redefined.
+     * @return true if the modified classes were redefined or there were none, false if the program must be restarted.
+     */
+    public boolean reload() {
+        StringBuilder lines = new StringBuilder();
+        Map<Path, String> changed = new HashMap<>();
+        Map<Path, Long> current = new HashMap<>();
+        for(Path p: getClassFiles()) {
+            current.put(p, p.toFile().lastModified());
+        }
+        if(!current.keySet().containsAll(modified.keySet())) {
+            System.console().printf("[Info] %s%n", "Classes were removed, restarting the program.");
+            return false;
+        }
+        for(Map.Entry<Path, Long> e: current.entrySet()) {
+            Long previous = modified.get(e.getKey());
+            if(previous != null && previous.equals(e.getValue())) continue;
+            String shape = classFileUtils.getShape(e.getKey());
+            changed.put(e.getKey(), shape);
+            if(previous == null) continue;
+            if(shape == null || !shape.equals(shapes.get(e.getKey()))) {
+                System.console().printf("[Info] The structure of %s changed, restarting the program.%n", e.getKey());
+                return false;
+            }
+            String name = classDirectory.relativize(e.getKey()).toString()
+                .replace(".class", "")
+                .replace(File.separator, ".");
+            lines.append(String.format("%s\t%s%n", name, e.getKey().toAbsolutePath()));
+        }
+        if(!lines.isEmpty() && !requestReload(lines.toString())) return false;
+        modified = current;
+        shapes.putAll(changed);
+        if(!lines.isEmpty()) System.console().printf("[Info] %s%n", "The modified classes were reloaded.");
+        return true;
+    }
+    private boolean requestReload(String lines) {
+        try {
+            Files.deleteIfExists(statusFile);
+            Path temporal = stateDirectory.resolve(RELOAD_FILE + ".tmp");
+            Files.writeString(temporal, lines, StandardCharsets.UTF_8);
+            Files.move(temporal, reloadFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            long deadline = System.currentTimeMillis() + STATUS_TIMEOUT_MILLIS;
+            while(!Files.exists(statusFile) && System.currentTimeMillis() < deadline) {
+                Thread.sleep(POLL_MILLIS);
+            }
+            if(!Files.exists(statusFile)) {
+                System.console().printf("[Warning] %s%n", "The program didn't answer the reload, restarting it.");
+                return false;
+            }
+            String status = Files.readString(statusFile, StandardCharsets.UTF_8);
+            if(status.startsWith(HotReloadAgent.OK_STATUS)) return true;
+            System.console().printf("[Warning] The classes couldn't be reloaded, restarting the program%n => | %s |%n", status);
+        } catch(IOException e) {
+            e.printStackTrace();
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return false;
+    }
+    private List<Path> getClassFiles() {
+        try (Stream<Path> s = Files.walk(classDirectory)) {
+            return s
+                .filter(p -> p.getFileName().toString().endsWith(".class"))
+                .filter(p -> !classDirectory.relativize(p).startsWith(GraphOperation.STATE_DIRECTORY))
+                .toList();
+        } catch(IOException e) {
+            e.printStackTrace();
+        }
+        return List.of();
+    }
+}
@@ -0,0 +1,320 @@
+package application.operations;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.spi.ToolProvider;
+import java.util.stream.Stream;
+
+import application.models.ClassModel;
+import application.utils.ClassFileUtils;
+
+/**
+ * Create a runtime image with only the JDK modules that the project needs.
+ * <p> The modules are found with jdeps and the image is created with jlink, both run in-process.
+ * <p> The modules of the class path are cached by the hash of the packages that its classes reference outside the project,
+ * so a change in the method bodies doesn't run jdeps again. The modules of each lib .jar file are cached by its size
+ * and last modified time.
+ * <p> The runtime is only linked again when the modules change, otherwise only the application files are replaced.
+ * <p> The cache keys include the version of the running JDK, since its modules are the ones analyzed and linked.
+ * <p> An existing image directory is only replaced when its empty or was created by a previous execution.
+ */
+public class ImageOperation {
+
+    public static final String MODULES_FILE = "modules.txt";
+    public static final String APP_DIRECTORY = "app";
+    private static final String CLASSES_KEY = "classes";
+    private static final String LIB_KEY = "lib";
+    private static final String IMAGE_KEY = "image";
+    private static final String BASE_MODULE = "java.base";
+    private static final String RELEASE_FILE = "release";
+
+    private Path classDirectory;
+    private Path modulesFile;
+    private ClassFileUtils classFileUtils;
+    // the cached lines by its key: classes, lib path or image path.
+    private Map<String, String[]> cache;
+
+    /**
+     * Create the runtime image operation of the given class path.
+     * @param classPath - the path where the class files and the build state are.
+     */
+    public ImageOperation(String classPath) {
+        classDirectory = Paths.get(classPath);
+        modulesFile = classDirectory.resolve(GraphOperation.STATE_DIRECTORY).resolve(MODULES_FILE);
+        classFileUtils = new ClassFileUtils();
+        cache = new HashMap<>();
+    }
+
+    /**
+     * Create the runtime image with the project .jar file and a launcher script.
+     * @param outputPath - the image directory.
+     * @param jarFile - the project .jar file.
+     * @param mainClass - the main class used by the launcher.
+     * @param libJars - the lib dependencies to analyze.
+     * @param copyLibs - true to copy the lib dependencies, false when they are merged into the .jar file.
+     * @return true if the image was created, false otherwise.
+     */
+    public boolean createImage(String outputPath, String jarFile, String mainClass, List<String> libJars, boolean copyLibs) {
+        Optional<ToolProvider> jdeps = ToolProvider.findFirst("jdeps");
+        Optional<ToolProvider> jlink = ToolProvider.findFirst("jlink");
+        if(jdeps.isEmpty() || jlink.isEmpty()) {
+            System.console().printf("[Error] %s%n", "The runtime image needs the jdeps and jlink tools of a JDK.");
+            return false;
+        }
+        load();
+        Set<String> modules = new TreeSet<>();
+        modules.add(BASE_MODULE);
+        Optional<Set<String>> classModules = getClassPathModules(jdeps.get(), libJars);
+        if(classModules.isEmpty()) return false;
+        modules.addAll(classModules.get());
+        for(String l: libJars) {
+            Optional<Set<String>> libModules = getLibModules(jdeps.get(), l);
+            if(libModules.isEmpty()) return false;
+            modules.addAll(libModules.get());
+        }
+        String moduleList = String.join(",", modules);
+        Path output = Paths.get(outputPath);
+        String[] image = cache.get(IMAGE_KEY + output.toAbsolutePath());
+        String jdk = Runtime.version().toString();
+        boolean link = image == null || image.length < 4 || !image[2].equals(moduleList) || !image[3].equals(jdk) ||
+            !Files.exists(output.resolve(RELEASE_FILE));
+        try {
+            if(link) {
+                if(!isReplaceable(output, image != null)) {
+                    System.console().printf("[Error] The image directory is not empty and is not a previous image%n => | %s |%n", output);
+                    return false;
+                }
+                System.console().printf("[Info] Linking the runtime image with %s%n", moduleList);
+                delete(output);
+                if(!runTool(jlink.get(), new ArrayList<>(List.of(
+                                    "--add-modules", moduleList,
+                                    "--strip-debug",
+                                    "--compress=2",
+                                    "--no-header-files",
+                                    "--no-man-pages",
+                                    "--output", output.toString()))).isPresent()) {
+                    return false;
+                }
+                cache.put(IMAGE_KEY + output.toAbsolutePath(),
+                        new String[] {IMAGE_KEY, output.toAbsolutePath().toString(), moduleList, jdk});
+            } else {
+                System.console().printf("[Info] %s%n", "The modules didn't change, reusing the runtime image.");
+            }
+            copyApplication(output, jarFile, mainClass, copyLibs ? libJars : List.of());
+        } catch(IOException e) {
+            e.printStackTrace();
+            return false;
+        } finally {
+            save();
+        }
+        System.console().printf("[Info] Runtime image created at %s%n", output);
+        return true;
+    }
+    /**
+     * Find if the image directory can be deleted to link it again.
+     * <p> Only an empty directory or a previous image, with the jlink release file and recorded in the cache, is replaced.
+     * @param output - the image directory.
+     * @param recorded - true if the cache has the image directory.
+     * @return true if the directory doesn't exist or can be replaced, false otherwise.
+     */
+    private boolean isReplaceable(Path output, boolean recorded) throws IOException {
+        if(!Files.exists(output)) return true;
+        if(!Files.isDirectory(output)) return false;
+        try (Stream<Path> s = Files.list(output)) {
+            if(s.findAny().isEmpty()) return true;
+        }
+        return recorded && Files.isRegularFile(output.resolve(RELEASE_FILE));
+    }
+    /**
+     * Get the modules used by the class path classes.
+     * <p> jdeps only runs when the packages referenced outside the project change.
+     */
+    private Optional<Set<String>> getClassPathModules(ToolProvider jdeps, List<String> libJars) {
+        String hash = getReferencesHash();
+        String[] cached = cache.get(CLASSES_KEY);
+        if(cached != null && cached[1].equals(hash)) return Optional.of(getModules(cached[2]));
+        List<String> args = new ArrayList<>(List.of("--print-module-deps", "--ignore-missing-deps", "--multi-release",
+                    String.valueOf(Runtime.version().feature())));
+        if(!libJars.isEmpty()) {
+            args.add("--class-path");
+            args.add(String.join(java.io.File.pathSeparator, libJars));
+        }
+        args.add(classDirectory.toString());
+        Optional<String> modules = runTool(jdeps, args);
+        modules.ifPresent(m -> cache.put(CLASSES_KEY, new String[] {CLASSES_KEY, hash, m}));
+        return modules.map(this::getModules);
+    }
+    /**
+     * Get the modules used by a lib .jar file, jdeps only runs when the file changes.
+     */
+    private Optional<Set<String>> getLibModules(ToolProvider jdeps, String libJar) {
+        Path lib = Paths.get(libJar);
+        String version = String.format("%s %s %s", lib.toFile().length(), lib.toFile().lastModified(), Runtime.version());
+        String[] cached = cache.get(LIB_KEY + libJar);
+        if(cached != null && cached[2].equals(version)) return Optional.of(getModules(cached[3]));
+        Optional<String> modules = runTool(jdeps, new ArrayList<>(List.of("--print-module-deps", "--ignore-missing-deps",
+                        "--multi-release", String.valueOf(Runtime.version().feature()), libJar)));
+        modules.ifPresent(m -> cache.put(LIB_KEY + libJar, new String[] {LIB_KEY, libJar, version, m}));
+        return modules.map(this::getModules);
+    }
+    /**
+     * Get the hash of the packages that the class path classes reference outside the project and the JDK version.
+     * @return the hexadecimal hash.
+     */
+    private String getReferencesHash() {
+        Set<String> project = new TreeSet<>();
+        Set<String> references = new TreeSet<>();
+        try (Stream<Path> s = Files.walk(classDirectory)) {
+            List<Path> classFiles = s
+                .filter(p -> p.getFileName().toString().endsWith(".class"))
+                .filter(p -> !classDirectory.relativize(p).startsWith(GraphOperation.STATE_DIRECTORY))
+                .toList();
+            for(Path p: classFiles) {
+                ClassModel model = classFileUtils.readClass(p);
+                if(model == null) continue;
+                project.add(model.getPackageName());
+                for(String d: model.dependencies()) {
+                    references.add(getPackage(d));
+                }
+            }
+        } catch(IOException e) {
+            e.printStackTrace();
+        }
+        references.removeAll(project);
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(String.format("%s%n", Runtime.version()).getBytes(StandardCharsets.UTF_8));
+            for(String r: references) {
+                digest.update(String.format("%s%n", r).getBytes(StandardCharsets.UTF_8));
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch(NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    private String getPackage(String internalName) {
+        int index = internalName.lastIndexOf('/');
+        return index == -1 ? "" : internalName.substring(0, index);
+    }
+    private Set<String> getModules(String moduleList) {
+        Set<String> modules = new TreeSet<>();
+        for(String m: moduleList.split(",")) {
+            if(!m.isBlank()) modules.add(m.trim());
+        }
+        return modules;
+    }
+    /**
+     * Run a JDK tool in-process.
+     * @param tool - the tool to run.
+     * @param args - the tool arguments.
+     * @return the tool output or empty if it failed.
+     */
+    private Optional<String> runTool(ToolProvider tool, List<String> args) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ByteArrayOutputStream error = new ByteArrayOutputStream();
+        int exitCode;
+        try (PrintStream out = new PrintStream(output, true, StandardCharsets.UTF_8);
+                PrintStream err = new PrintStream(error, true, StandardCharsets.UTF_8)) {
+            exitCode = tool.run(out, err, args.toArray(new String[0]));
+        }
+        String text = output.toString(StandardCharsets.UTF_8).trim();
+        if(exitCode != 0) {
+            System.console().printf("[Error] %s %s failed with code %s%n%s%n%s%n", tool.name(), String.join(" ", args),
+                    exitCode, text, error.toString(StandardCharsets.UTF_8));
+            return Optional.empty();
+        }
+        return Optional.of(text);
+    }
+    /**
+     * Copy the application files into the image and write the launcher scripts.
+     * <p> The previous application files are replaced.
+     */
+    private void copyApplication(Path output, String jarFile, String mainClass, List<String> libJars) throws IOException {
+        Path app = output.resolve(APP_DIRECTORY);
+        delete(app);
+        Files.createDirectories(app.resolve(LIB_KEY));
+        Path jar = Paths.get(jarFile);
+        Files.copy(jar, app.resolve(jar.getFileName()), StandardCopyOption.REPLACE_EXISTING);
+        for(String l: libJars) {
+            Path lib = Paths.get(l);
+            Files.copy(lib, app.resolve(LIB_KEY).resolve(lib.getFileName()), StandardCopyOption.REPLACE_EXISTING);
+        }
+        String name = jar.getFileName().toString().replaceFirst("\\.jar$", "");
+        Path launcher = output.resolve("bin").resolve(name);
+        Files.writeString(launcher, String.format(
+                    "#!/bin/sh%nDIR=\"$(cd \"$(dirname \"$0\")\" && pwd)\"%n" +
+                    "exec \"$DIR/java\" -cp \"$DIR/../%s/%s:$DIR/../%s/%s/*\" %s \"$@\"%n",
+                    APP_DIRECTORY, jar.getFileName(), APP_DIRECTORY, LIB_KEY, mainClass), StandardCharsets.UTF_8);
+        try {
+            Files.setPosixFilePermissions(launcher, PosixFilePermissions.fromString("rwxr-xr-x"));
+        } catch(UnsupportedOperationException e) {
+            // the file system doesn't have posix permissions, like in windows.
+        }
+        Files.writeString(output.resolve("bin").resolve(name + ".bat"), String.format(
+                    "@echo off\r\n\"%%~dp0java\" -cp \"%%~dp0..\\%s\\%s;%%~dp0..\\%s\\%s\\*\" %s %%*\r\n",
+                    APP_DIRECTORY, jar.getFileName(), APP_DIRECTORY, LIB_KEY, mainClass), StandardCharsets.UTF_8);
+    }
+    private void load() {
+        cache.clear();
+        if(!Files.exists(modulesFile)) return;
+        try {
+            for(String line: Files.readAllLines(modulesFile, StandardCharsets.UTF_8)) {
+                String[] parts = line.split("\t", -1);
+                if(parts.length < 3) continue;
+                switch(parts[0]) {
+                    case CLASSES_KEY -> cache.put(CLASSES_KEY, parts);
+                    case LIB_KEY -> {
+                        if(parts.length == 4) cache.put(LIB_KEY + parts[1], parts);
+                    }
+                    case IMAGE_KEY -> cache.put(IMAGE_KEY + parts[1], parts);
+                    default -> {
+                    }
+                }
+            }
+        } catch(IOException e) {
+            e.printStackTrace();
+            cache.clear();
+        }
+    }
+    private void save() {
+        StringBuilder lines = new StringBuilder();
+        for(String[] parts: cache.values()) {
+            lines.append(String.format("%s%n", String.join("\t", parts)));
+        }
+        try {
+            Files.createDirectories(modulesFile.getParent());
+            Files.writeString(modulesFile, lines.toString(), StandardCharsets.UTF_8);
+        } catch(IOException e) {
+            e.printStackTrace();
+        }
+    }
+    private void delete(Path directory) throws IOException {
+        if(!Files.exists(directory)) return;
+        try (Stream<Path> s = Files.walk(directory)) {
+            for(Path p: s.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(p);
+            }
+        }
+    }
+}
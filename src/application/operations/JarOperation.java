@@ -0,0 +1,466 @@
+package application.operations;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.jar.Attributes;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+import application.models.FileStateModel;
+import application.models.ZipEntryModel;
+import application.utils.ProfileUtils;
+import application.utils.ZipReader;
+import application.utils.ZipWriter;
+
+/**
+ * Write .jar files without spawning the jar tool.
+ * <p> The entries are written in name order with a fixed time, so the same content produces the same .jar file.
+ * <p> The entries that didn't change since the last .jar file are copied from it without compressing them again.
+ * <p> The lib dependencies are merged from their .jar files copying the compressed entries as they are.
+ */
+public class JarOperation {
+
+    public static final int DEFAULT_LEVEL = Deflater.DEFAULT_COMPRESSION;
+    public static final String JAR_STATE_FILE = "jar.bin";
+    /** The first entry found is used, the class path has priority over the lib dependencies. */
+    public static final String FIRST_POLICY = "first";
+    /** Duplicated file entries stop the .jar creation. */
+    public static final String ERROR_POLICY = "error";
+    /** The META-INF/services files are concatenated, for other entries the first one is used. */
+    public static final String MERGE_POLICY = "merge";
+    private static final String SERVICES_DIRECTORY = "META-INF/services/";
+    // owner of the class path entries and of the concatenated entries, which are never reused.
+    private static final String CLASS_PATH_OWNER = "";
+    private static final String MERGED_OWNER = "*";
+    private static final int MAGIC = 0x4A424A52;
+    private static final int VERSION = 2;
+    private static final String CONSOLE_FORMAT = "[%s] %s%n";
+
+    private int level;
+    private String duplicates;
+
+    // state of the last created .jar file
+    private Map<String, FileStateModel> entryStates;
+    private Map<String, String> entryOwners;
+    private Map<String, FileStateModel> libStates;
+    private Map<String, List<String>> libNames;
+
+    // lib dependencies opened during the .jar creation
+    private Map<String, ZipReader> readers;
+    private Map<String, Map<String, ZipEntryModel>> readerEntries;
+
+    public JarOperation() {
+        this(DEFAULT_LEVEL, FIRST_POLICY);
+    }
+    /**
+     * Create an instance of this class with a given compression level.
+     * @param level - the deflate level from 1 to 9, 0 to store the entries without compression.
+     * @param duplicates - the policy for entries present in more than one place: first, error or merge.
+     */
+    public JarOperation(int level, String duplicates) {
+        this.level = level;
+        this.duplicates = duplicates;
+        entryStates = new HashMap<>();
+        entryOwners = new HashMap<>();
+        libStates = new HashMap<>();
+        libNames = new HashMap<>();
+        readers = new HashMap<>();
+        readerEntries = new HashMap<>();
+    }
+
+    /**
+     * Create the .jar file with the content of the given directories and lib dependencies.
+     * <p> When an entry is present in more than one place the duplicates policy is used.
+     * <p> The .jar file is written in a temporary file and moved when its completed.
+     * <p> The size and last modified time of each entry file is stored in the build state of the first directory,
+     * the entry is copied from the previous .jar file when both are the same or when its content crc is the same.
+     * <p> Without the build state, the entries of the previous .jar file are still copied when its content crc is the same.
+     * <p> The lib dependencies whose hash didn't change are not opened, its entries are copied from the previous .jar file.
+     * @param jarURI - the .jar file to create.
+     * @param manifestURI - the manifest file to use, or empty to create one.
+     * @param mainClass - the main class of the created manifest, or empty.
+     * @param directories - the directories whose content is added to the .jar file, the class path first.
+     * @param libJars - the lib dependencies .jar files whose entries are added to the .jar file.
+     * @return true if the .jar file was created, false otherwise.
+     */
+    public boolean createJar(String jarURI, String manifestURI, String mainClass, List<String> directories,
+            List<String> libJars) {
+        Path jar = Paths.get(jarURI);
+        Path temporary = jar.resolveSibling(jar.getFileName() + ".tmp");
+        Path stateFile = Paths.get(directories.get(0), GraphOperation.STATE_DIRECTORY, JAR_STATE_FILE);
+        ZipReader previous = null;
+        try {
+            // the state is removed with the class path on a full build, so the previous .jar file is matched by crc.
+            boolean loaded = loadState(stateFile, jar);
+            previous = openPrevious(jar);
+            Map<String, ZipEntryModel> previousEntries = getEntryMap(previous);
+
+            Map<String, Path> files = getEntries(directories);
+            Map<String, List<String>> owners = new TreeMap<>();
+            for(String name: files.keySet()) {
+                owners.put(name, new ArrayList<>(List.of(CLASS_PATH_OWNER)));
+            }
+            Map<String, FileStateModel> currentLibs = new HashMap<>();
+            Map<String, List<String>> currentNames = new HashMap<>();
+            for(String lib: libJars) {
+                Path libFile = Paths.get(lib);
+                BasicFileAttributes attributes = Files.readAttributes(libFile, BasicFileAttributes.class);
+                long size = attributes.size();
+                long modified = attributes.lastModifiedTime().toMillis();
+                FileStateModel state = libStates.get(lib);
+                List<String> names;
+                if(previous != null && state != null && (state.hasSameAttributes(size, modified) ||
+                            state.size() == size && state.hasSameHash(StateOperation.hash(libFile)))) {
+                    names = libNames.get(lib);
+                    currentLibs.put(lib, new FileStateModel(size, modified, state.hash()));
+                } else {
+                    names = new ArrayList<>();
+                    for(String name: getLibEntries(lib).keySet()) {
+                        if(!isIgnoredLibEntry(name)) names.add(name);
+                    }
+                    currentLibs.put(lib, new FileStateModel(size, modified, StateOperation.hash(libFile)));
+                }
+                currentNames.put(lib, names);
+                for(String name: names) {
+                    owners.computeIfAbsent(name, k -> new ArrayList<>()).add(lib);
+                }
+            }
+            if(!resolveDuplicates(owners)) return false;
+
+            Map<String, FileStateModel> writtenStates = new HashMap<>();
+            Map<String, String> writtenOwners = new HashMap<>();
+            int copied = 0;
+            try (ZipWriter output = new ZipWriter(temporary, level)) {
+                writeManifest(output, getManifest(manifestURI, mainClass));
+                for(Map.Entry<String, List<String>> e: owners.entrySet()) {
+                    String name = e.getKey();
+                    List<String> sources = e.getValue();
+                    if(name.equals("META-INF/")) continue;
+                    if(name.endsWith("/")) {
+                        output.writeDirectory(name);
+                        continue;
+                    }
+                    ZipEntryModel old = previousEntries.get(name);
+                    String owner = sources.size() > 1 ? MERGED_OWNER : sources.get(0);
+                    writtenOwners.put(name, owner);
+                    if(owner.equals(MERGED_OWNER)) {
+                        output.writeFile(name, getMergedContent(name, sources, files));
+                    } else if(owner.equals(CLASS_PATH_OWNER)) {
+                        if(loaded && !owner.equals(entryOwners.get(name))) old = null;
+                        if(writeFileEntry(output, name, files.get(name), old, previous, writtenStates)) ++copied;
+                    } else if(old != null && owner.equals(entryOwners.get(name)) && !readers.containsKey(owner)) {
+                        // the lib didn't change, so the entry of the previous .jar file is the same.
+                        output.copyEntry(name, old, previous);
+                        ++copied;
+                    } else {
+                        output.copyEntry(name, getLibEntries(owner).get(name), readers.get(owner));
+                    }
+                }
+            }
+            if(previous != null) {
+                previous.close();
+                previous = null;
+            }
+            Files.move(temporary, jar, StandardCopyOption.REPLACE_EXISTING);
+            ProfileUtils.addFiles(owners.size());
+            ProfileUtils.addBytes(Files.size(jar));
+            entryStates = writtenStates;
+            entryOwners = writtenOwners;
+            libStates = currentLibs;
+            libNames = currentNames;
+            saveState(stateFile, jar);
+            System.console().printf(CONSOLE_FORMAT, "Info", String.format(
+                        "Created %s with %s entries, %s reused", jar, owners.size(), copied));
+            return true;
+        } catch(IOException e) {
+            e.printStackTrace();
+            try {
+                Files.deleteIfExists(temporary);
+            } catch(IOException ex) {
+                ex.printStackTrace();
+            }
+        } finally {
+            if(previous != null) {
+                try {
+                    previous.close();
+                } catch(IOException e) {
+                    e.printStackTrace();
+                }
+            }
+            for(ZipReader r: readers.values()) {
+                try {
+                    r.close();
+                } catch(IOException e) {
+                    e.printStackTrace();
+                }
+            }
+            readers.clear();
+            readerEntries.clear();
+        }
+        return false;
+    }
+    /**
+     * Open the previous .jar file to copy its entries.
+     * @return the reader of the .jar file, null if it doesn't exists or it's not valid.
+     */
+    private ZipReader openPrevious(Path jar) {
+        if(!Files.exists(jar)) return null;
+        try {
+            return new ZipReader(jar);
+        } catch(IOException e) {
+            return null;
+        }
+    }
+    /**
+     * Get the entry name and file relation of the directories sorted by entry name.
+     * <p> The build state directory and the manifest of the directories are ignored.
+     */
+    private Map<String, Path> getEntries(List<String> directories) {
+        Map<String, Path> entries = new TreeMap<>();
+        for(String d: directories) {
+            Path dir = Paths.get(d);
+            if(!Files.isDirectory(dir)) continue;
+            try (Stream<Path> s = Files.walk(dir)) {
+                s
+                    .filter(p -> !p.equals(dir))
+                    .forEach(p -> {
+                        String name = dir.relativize(p).toString().replace(p.getFileSystem().getSeparator(), "/");
+                        if(Files.isDirectory(p)) name += "/";
+                        if(name.startsWith(GraphOperation.STATE_DIRECTORY + "/") || name.equals(JarFile.MANIFEST_NAME)) return;
+                        entries.putIfAbsent(name, p);
+                    });
+            } catch(IOException e) {
+                e.printStackTrace();
+            }
+        }
+        return entries;
+    }
+    /**
+     * Find if a lib dependency entry is left out of the .jar file.
+     * <p> The manifest and the signature files are left out, because the merged content is no longer signed.
+     */
+    private boolean isIgnoredLibEntry(String name) {
+        if(name.equals(JarFile.MANIFEST_NAME)) return true;
+        if(!name.startsWith("META-INF/") || name.indexOf('/', "META-INF/".length()) != -1) return false;
+        return name.endsWith(".SF") || name.endsWith(".RSA") || name.endsWith(".DSA") || name.endsWith(".EC");
+    }
+    /**
+     * Apply the duplicates policy leaving only the owners whose content is written.
+     * @return false if the policy doesn't allow the duplicated entries, true otherwise.
+     */
+    private boolean resolveDuplicates(Map<String, List<String>> owners) {
+        boolean valid = true;
+        for(Map.Entry<String, List<String>> e: owners.entrySet()) {
+            List<String> sources = e.getValue();
+            if(sources.size() == 1) continue;
+            String name = e.getKey();
+            if(name.endsWith("/")) {
+                sources.subList(1, sources.size()).clear();
+            } else if(duplicates.equals(MERGE_POLICY) && name.startsWith(SERVICES_DIRECTORY)) {
+                continue;
+            } else if(duplicates.equals(ERROR_POLICY)) {
+                System.console().printf(CONSOLE_FORMAT, "Error", String.format(
+                            "Duplicated entry %s%n => %s", name, String.join(", ", getOwnerNames(sources))));
+                valid = false;
+            } else {
+                sources.subList(1, sources.size()).clear();
+            }
+        }
+        return valid;
+    }
+    private List<String> getOwnerNames(List<String> sources) {
+        List<String> names = new ArrayList<>();
+        for(String o: sources) {
+            names.add(o.equals(CLASS_PATH_OWNER) ? "class path" : o);
+        }
+        return names;
+    }
+    /**
+     * Write an entry of the class path directories.
+     * @return true if the entry was copied from the previous .jar file, false if it was compressed.
+     */
+    private boolean writeFileEntry(ZipWriter output, String name, Path file, ZipEntryModel old, ZipReader previous,
+            Map<String, FileStateModel> writtenStates) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        long size = attributes.size();
+        long modified = attributes.lastModifiedTime().toMillis();
+        writtenStates.put(name, new FileStateModel(size, modified, new byte[0]));
+        FileStateModel state = entryStates.get(name);
+        if(old != null && old.size() == size && state != null && state.hasSameAttributes(size, modified)) {
+            output.copyEntry(name, old, previous);
+            return true;
+        }
+        byte[] content = Files.readAllBytes(file);
+        if(old != null && old.size() == content.length && old.crc() == getCrc(content)) {
+            output.copyEntry(name, old, previous);
+            return true;
+        }
+        output.writeFile(name, content);
+        return false;
+    }
+    /**
+     * Concatenate the content of every owner of the entry, used for the service provider files.
+     */
+    private byte[] getMergedContent(String name, List<String> sources, Map<String, Path> files) throws IOException {
+        ByteArrayOutputStream merged = new ByteArrayOutputStream();
+        for(String o: sources) {
+            byte[] content;
+            if(o.equals(CLASS_PATH_OWNER)) {
+                content = Files.readAllBytes(files.get(name));
+            } else {
+                Map<String, ZipEntryModel> entries = getLibEntries(o);
+                content = readers.get(o).readContent(entries.get(name));
+            }
+            merged.write(content);
+            if(content.length > 0 && content[content.length - 1] != '\n') merged.write('\n');
+        }
+        return merged.toByteArray();
+    }
+    /**
+     * Get the entries of a lib dependency, opening it the first time.
+     */
+    private Map<String, ZipEntryModel> getLibEntries(String lib) throws IOException {
+        Map<String, ZipEntryModel> entries = readerEntries.get(lib);
+        if(entries == null) {
+            ZipReader reader = new ZipReader(Paths.get(lib));
+            readers.put(lib, reader);
+            entries = getEntryMap(reader);
+            readerEntries.put(lib, entries);
+        }
+        return entries;
+    }
+    private Map<String, ZipEntryModel> getEntryMap(ZipReader reader) {
+        Map<String, ZipEntryModel> entries = new HashMap<>();
+        if(reader == null) return entries;
+        for(ZipEntryModel e: reader.getEntries()) {
+            entries.putIfAbsent(e.name(), e);
+        }
+        return entries;
+    }
+    /**
+     * Load the entry and lib dependency states of the last created .jar file.
+     * <p> The states are only valid when the .jar file wasn't modified after its creation
+     * and the compression level is the same.
+     * @return true if the states were loaded, false otherwise.
+     */
+    private boolean loadState(Path stateFile, Path jar) {
+        if(!Files.exists(stateFile) || !Files.exists(jar)) return false;
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(stateFile)))) {
+            if(input.readInt() != MAGIC || input.readInt() != VERSION || input.readInt() != level) return false;
+            BasicFileAttributes attributes = Files.readAttributes(jar, BasicFileAttributes.class);
+            if(input.readLong() != attributes.size() || input.readLong() != attributes.lastModifiedTime().toMillis()) {
+                return false;
+            }
+            int libCount = input.readInt();
+            for(int i=0; i<libCount; ++i) {
+                String lib = input.readUTF();
+                long size = input.readLong();
+                long modified = input.readLong();
+                byte[] hash = new byte[input.readInt()];
+                input.readFully(hash);
+                libStates.put(lib, new FileStateModel(size, modified, hash));
+                int nameCount = input.readInt();
+                List<String> names = new ArrayList<>(nameCount);
+                for(int j=0; j<nameCount; ++j) {
+                    names.add(input.readUTF());
+                }
+                libNames.put(lib, names);
+            }
+            int count = input.readInt();
+            for(int i=0; i<count; ++i) {
+                String name = input.readUTF();
+                entryOwners.put(name, input.readUTF());
+                long size = input.readLong();
+                long modified = input.readLong();
+                entryStates.put(name, new FileStateModel(size, modified, new byte[0]));
+            }
+            return true;
+        } catch(IOException e) {
+            System.console().printf(CONSOLE_FORMAT, "Warning", "Couldn't read the .jar state, all entries are written again.");
+            entryStates.clear();
+            entryOwners.clear();
+            libStates.clear();
+            libNames.clear();
+            return false;
+        }
+    }
+    private void saveState(Path stateFile, Path jar) {
+        try {
+            Files.createDirectories(stateFile.getParent());
+            BasicFileAttributes attributes = Files.readAttributes(jar, BasicFileAttributes.class);
+            try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(stateFile)))) {
+                output.writeInt(MAGIC);
+                output.writeInt(VERSION);
+                output.writeInt(level);
+                output.writeLong(attributes.size());
+                output.writeLong(attributes.lastModifiedTime().toMillis());
+                output.writeInt(libStates.size());
+                for(Map.Entry<String, FileStateModel> e: libStates.entrySet()) {
+                    output.writeUTF(e.getKey());
+                    output.writeLong(e.getValue().size());
+                    output.writeLong(e.getValue().modified());
+                    output.writeInt(e.getValue().hash().length);
+                    output.write(e.getValue().hash());
+                    List<String> names = libNames.get(e.getKey());
+                    output.writeInt(names.size());
+                    for(String n: names) {
+                        output.writeUTF(n);
+                    }
+                }
+                output.writeInt(entryOwners.size());
+                for(Map.Entry<String, String> e: entryOwners.entrySet()) {
+                    FileStateModel state = entryStates.getOrDefault(e.getKey(), new FileStateModel(0, 0, new byte[0]));
+                    output.writeUTF(e.getKey());
+                    output.writeUTF(e.getValue());
+                    output.writeLong(state.size());
+                    output.writeLong(state.modified());
+                }
+            }
+        } catch(IOException e) {
+            e.printStackTrace();
+        }
+    }
+    private Manifest getManifest(String manifestURI, String mainClass) throws IOException {
+        Manifest manifest = new Manifest();
+        if(!manifestURI.isBlank() && Files.exists(Paths.get(manifestURI))) {
+            try (InputStream input = Files.newInputStream(Paths.get(manifestURI))) {
+                manifest.read(input);
+            }
+        }
+        Attributes attributes = manifest.getMainAttributes();
+        attributes.putIfAbsent(Attributes.Name.MANIFEST_VERSION, "1.0");
+        if(!mainClass.isBlank()) attributes.putIfAbsent(Attributes.Name.MAIN_CLASS, mainClass);
+        return manifest;
+    }
+    private void writeManifest(ZipWriter output, Manifest manifest) throws IOException {
+        output.writeDirectory("META-INF/");
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        manifest.write(content);
+        output.writeFile(JarFile.MANIFEST_NAME, content.toByteArray());
+    }
+    private long getCrc(byte[] content) {
+        CRC32 crc = new CRC32();
+        crc.update(content);
+        return crc.getValue();
+    }
+}
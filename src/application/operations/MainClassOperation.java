@@ -0,0 +1,139 @@
+package application.operations;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+
+import application.utils.ClassFileUtils;
+
+/**
+ * Locate the main class of the project.
+ * <p> The compiled class files are searched first reading only their method table,
+ * then the source files are read line by line until the main declaration is found.
+ * <p> The result is stored in the build state with the size and last modified time of the file where it was found,
+ * so the next executions don't search while that file doesn't change.
+ */
+public class MainClassOperation {
+
+    public static final String MAIN_STATE_FILE = "main.bin";
+    private static final int MAGIC = 0x4A424D43;
+    private static final int VERSION = 1;
+    private static final String MAIN_DECLARATION = "public static void main";
+    private static final int SEARCH_LEVEL = 2;
+
+    private String root;
+    private String classPath;
+    private FileOperation fileOperation;
+    private ClassFileUtils classFileUtils;
+    private Path stateFile;
+
+    /**
+     * Create the main class locator.
+     * @param root - the root path of the source files.
+     * @param classPath - the path where the class files and the build state are.
+     * @param fileOperation - the file operation used to list the files.
+     */
+    public MainClassOperation(String root, String classPath, FileOperation fileOperation) {
+        this.root = root;
+        this.classPath = classPath;
+        this.fileOperation = fileOperation;
+        classFileUtils = new ClassFileUtils();
+        stateFile = Paths.get(classPath, GraphOperation.STATE_DIRECTORY, MAIN_STATE_FILE);
+    }
+
+    /**
+     * Get the main class of the source path.
+     * @param sourcePath - the path of the source files.
+     * @return the main class package name, or empty string if there is none.
+     */
+    public String find(String sourcePath) {
+        String mainClass = load(sourcePath);
+        if(mainClass != null) return mainClass;
+        Path file = findClassFile(sourcePath);
+        if(file != null) {
+            mainClass = getClassName(Paths.get(classPath).relativize(file).toString(), ".class");
+        } else {
+            String source = fileOperation.getFileWithLine(sourcePath, MAIN_DECLARATION, SEARCH_LEVEL);
+            if(source.isBlank()) return "";
+            file = Paths.get(source);
+            mainClass = getClassName(source.replace(root + File.separator, ""), ".java");
+        }
+        save(sourcePath, mainClass, file);
+        return mainClass;
+    }
+    /**
+     * Search the top level class files of the source path for the main method.
+     * <p> Only the class files whose source file still exists are considered.
+     * @param sourcePath - the path of the source files.
+     * @return the class file with the main method or null if its not found.
+     */
+    private Path findClassFile(String sourcePath) {
+        Path rootPath = Paths.get(root).normalize();
+        Path source = Paths.get(sourcePath).normalize();
+        if(!source.startsWith(rootPath)) return null;
+        Path classes = Paths.get(classPath).resolve(rootPath.relativize(source)).normalize();
+        if(!Files.isDirectory(classes)) return null;
+        for(Path p: fileOperation.getFiles(classes.toString(), SEARCH_LEVEL, ".class")) {
+            String name = p.getFileName().toString();
+            if(name.contains("$")) continue;
+            String relative = Paths.get(classPath).relativize(p).toString();
+            Path sourceFile = rootPath.resolve(relative.substring(0, relative.length() - ".class".length()) + ".java");
+            if(Files.exists(sourceFile) && classFileUtils.hasMainMethod(p)) return p;
+        }
+        return null;
+    }
+    private String getClassName(String relative, String extension) {
+        return relative
+            .replace(extension, "")
+            .replace(File.separator, ".");
+    }
+    /**
+     * Load the stored main class when the file where it was found is unchanged.
+     * @param sourcePath - the path of the source files.
+     * @return the stored main class or null if it must be searched.
+     */
+    private String load(String sourcePath) {
+        if(!Files.exists(stateFile)) return null;
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(stateFile)))) {
+            if(input.readInt() != MAGIC || input.readInt() != VERSION) return null;
+            String storedSource = input.readUTF();
+            String mainClass = input.readUTF();
+            Path file = Paths.get(input.readUTF());
+            long size = input.readLong();
+            long modified = input.readLong();
+            if(!storedSource.equals(sourcePath) || !Files.exists(file)) return null;
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            if(attributes.size() != size || attributes.lastModifiedTime().toMillis() != modified) return null;
+            return mainClass;
+        } catch(IOException e) {
+            return null;
+        }
+    }
+    private void save(String sourcePath, String mainClass, Path file) {
+        // without class path there is no build state to write.
+        if(!Files.isDirectory(Paths.get(classPath))) return;
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            Files.createDirectories(stateFile.getParent());
+            try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(stateFile)))) {
+                output.writeInt(MAGIC);
+                output.writeInt(VERSION);
+                output.writeUTF(sourcePath);
+                output.writeUTF(mainClass);
+                output.writeUTF(file.normalize().toString());
+                output.writeLong(attributes.size());
+                output.writeLong(attributes.lastModifiedTime().toMillis());
+            }
+        } catch(IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -1,21 +1,31 @@
 package application.operations;
 
 import application.builders.*;
+import application.models.ArtifactModel;
+import application.models.CompileTargetModel;
+import application.models.ProcessResultModel;
 import application.utils.CommandUtils;
+import application.utils.ProfileUtils;
 
 import java.io.File;
 
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 public class Operation {
 
     private String[] args;
     private FileOperation fileOperation;
     private ProcessOperation processOperation;
+    private CompilerOperation compilerOperation;
 
     private CommandUtils commandUtils;
 
@@ -25,21 +35,38 @@ public class Operation {
     private String oClassPath;
     private String oIncludeLib;
     private String oCompileFlags;
+    private String oTestPath;
+    private String oTestClass;
     private String root;
 
+    private Map<String, String> config;
+    private String configURI;
+    private long configModified;
+
     public Operation(String[] args) {
         this.args = args;
         fileOperation = new FileOperation();
         commandUtils = new CommandUtils(args);
         processOperation = new ProcessOperation();
+        compilerOperation = new CompilerOperation();
     }
     public Operation(String[] args, FileOperation fileOperation, ProcessOperation processOperation) {
         this.args = args;
         this.fileOperation = fileOperation;
         commandUtils = new CommandUtils(args);
         this.processOperation = processOperation;
+        compilerOperation = new CompilerOperation();
     }
 
+    /**
+     * Change the command line arguments to reuse this instance.
+     * <p> Used by the daemon to execute each client request with the same warm state.
+     * @param args - the new command line arguments.
+     */
+    public void setArgs(String[] args) {
+        this.args = args;
+        commandUtils = new CommandUtils(args);
+    }
     /**
      * Initialize the environment variables.
      * <p> configuration with the command line values.
@@ -49,17 +76,25 @@ public class Operation {
      * <p> use --i to include/exclude/ignore the lib dependencies.
      */
     public void startUpConfig() {
-        String configURI = getPrefixValue("-c");
+        String configFile = Optional.ofNullable(getPrefixValue("-c")).orElse("config.txt");
         String sourcePath = getPrefixValue("-s");
         String classPath = getPrefixValue("-cp");
         String includeLib = getPrefixValue("--i");
 
-        Map<String, String> config = fileOperation.getConfigValues(Optional.ofNullable(configURI).orElse("config.txt"));
+        // the daemon keeps the parsed configuration until the file changes.
+        long modified = new File(configFile).lastModified();
+        if(config == null || !configFile.equals(configURI) || modified != configModified) {
+            config = ProfileUtils.measure("config", () -> fileOperation.getConfigValues(configFile));
+            configURI = configFile;
+            configModified = modified;
+        }
 
         oSourcePath = Optional.ofNullable(sourcePath).orElse(config.get("Source-Path"));
         oClassPath = Optional.ofNullable(classPath).orElse(config.get("Class-Path"));
         oIncludeLib = Optional.ofNullable(includeLib).orElse(config.get("Libraries"));
         oCompileFlags = config.get("Compile-Flags");
+        oTestPath = config.get("Test-Path");
+        oTestClass = config.get("Test-Class");
         root = config.get("Root-Path");
 
         compileBuilder = new CompileBuilder(config.get("Root-Path"), fileOperation);
@@ -68,38 +103,330 @@ public class Operation {
      * Command operation to compile the project.
      * <p> Use the re-compile command when class path is already created.
      * <p> Use -f to pass one compile flag like -Xlint:all.
+     * <p> Use --engine shell to compile with a javac child process instead of the in-process compiler.
+     * <p> Use --jobs to limit the number of partitions compiled at the same time.
+     * <p> The class files of source files compiled before with the same configuration are restored from the build cache.
+     * @return true if the compilation succeed, false otherwise.
+     */
+    public boolean compileOperation() {
+        if(commandUtils.showHelpOnCompile()) return true;
+        return ProfileUtils.measure("compile", () -> compileOperation(null));
+    }
+    /**
+     * Compile the project using only the given files as candidates of the re-compilation.
+     * @param candidates - the .java files that might be modified, null to verify every source file.
+     * @return true if the compilation succeed, false otherwise.
      */
-    public void compileOperation() {
-        if(commandUtils.showHelpOnCompile()) return;
+    private boolean compileOperation(List<Path> candidates) {
         // For now only 1 argument flags is allowed.
-        String flags = getPrefixValue("-f");
+        String flags = compileBuilder.prepareCompileFlags(Optional.ofNullable(getPrefixValue("-f")).orElse(oCompileFlags));
+        return compileOperation(new CompileTargetModel(oSourcePath, oClassPath, "", root), candidates, flags, getCacheOperation(flags));
+    }
+    /**
+     * Compile the source tree of the target incrementally.
+     * @param target - the source tree and its class path.
+     * @param candidates - the .java files that might be modified, null to verify every source file.
+     * @param flags - the compile flags.
+     * @param cache - the build cache or null to compile every file.
+     * @return true if the compilation succeed, false otherwise.
+     */
+    private boolean compileOperation(CompileTargetModel target, List<Path> candidates, String flags, CacheOperation cache) {
+        return compileOperation(target, candidates, Set.of(), flags, cache);
+    }
+    /**
+     * Compile the source tree of the target incrementally.
+     * @param target - the source tree and its class path.
+     * @param candidates - the .java files that might be modified, null to verify every source file.
+     * @param dependents - the .java files to compile even if they weren't modified, like the ones that use a changed asset.
+     * @param flags - the compile flags.
+     * @param cache - the build cache or null to compile every file.
+     * @return true if the compilation succeed, false otherwise.
+     */
+    private boolean compileOperation(CompileTargetModel target, List<Path> candidates, Set<String> dependents, String flags,
+            CacheOperation cache) {
+        String sourcePath = target.sourcePath();
+        String classPath = target.classPath();
+        boolean fullBuild = !new File(classPath).exists();
+        StateOperation state = new StateOperation(classPath).load();
+        // the class files and the graph sources are mapped from the root of the target, not the one of the project.
+        CompileBuilder targetBuilder = new CompileBuilder(target.root(), fileOperation);
+        GraphOperation graph = new GraphOperation(classPath, target.root());
+        if(fullBuild || !graph.exists()) {
+            List<String> files;
+            try (ProfileUtils.Phase phase = ProfileUtils.start("changes")) {
+                files = fullBuild ?
+                    targetBuilder.getSourceFiles(sourcePath) :
+                    new ArrayList<>(targetBuilder.getReCompileFiles(sourcePath, classPath, state));
+                phase.addFiles(files.size());
+            }
+            if(!compileOrRestore(target, new HashSet<>(files), fullBuild, flags, graph, cache)) return false;
+            ProfileUtils.measure("state", () -> state.save(files));
+            if(cache != null) cache.saveStats();
+            return true;
+        }
+        // abi aware re-compilation: the dependent files are only compiled when the abi of the modified ones changes.
+        graph.load();
+        Set<String> compiled = new HashSet<>();
+        Set<String> pending;
+        try (ProfileUtils.Phase phase = ProfileUtils.start("changes")) {
+            pending = candidates == null ?
+                targetBuilder.getModifiedFiles(sourcePath, classPath, state) :
+                targetBuilder.getModifiedFiles(sourcePath, classPath, state, candidates.stream().filter(Files::exists).toList());
+            for(String d: dependents) {
+                if(new File(d).exists()) pending.add(d);
+            }
+            phase.addFiles(pending.size());
+        }
+        // the classes of the removed source files are removed, and the files that used them compiled again.
+        // the watch operation gives the removed files as candidates, but they are found from the graph.
+        Set<String> removed = graph.getRemovedSourceFiles();
+        if(!removed.isEmpty()) {
+            graph.deleteClassFiles(removed);
+            updateGraph(graph);
+            pending.addAll(graph.getRemovedDependentFiles());
+        }
+        if(pending.isEmpty()) {
+            System.console().printf("[Info] %s%n", "No files to compile.");
+            return true;
+        }
+        while(!pending.isEmpty()) {
+            Map<String, String> previous = graph.getAbis(pending);
+            if(!compileOrRestore(target, pending, false, flags, graph, cache)) return false;
+            compiled.addAll(pending);
+            if(graph.hasConstantChanges(previous, pending)) {
+                System.console().printf("[Info] %s%n", "Compile time constants changed, compiling all the source files.");
+                pending = new HashSet<>(targetBuilder.getSourceFiles(sourcePath));
+            } else {
+                pending = graph.getDependentFiles(graph.getAbiChangedFiles(previous, pending), false);
+                pending.addAll(graph.getRemovedDependentFiles());
+            }
+            pending.removeAll(compiled);
+        }
+        ProfileUtils.measure("state", () -> state.save(compiled));
+        if(cache != null) cache.saveStats();
+        return true;
+    }
+    /**
+     * Restore the given source files from the build cache and compile the rest, leaving the graph updated.
+     * <p> The restored files whose referenced classes changed are compiled after the others.
+     * @param target - the source tree and its class path.
+     * @param files - the source files to compile.
+     * @param fullBuild - true if the class path doesn't exists.
+     * @param flags - the compile flags.
+     * @param graph - the graph of the class path.
+     * @param cache - the build cache or null to compile every file.
+     * @return true if the compilation succeed, false otherwise.
+     */
+    private boolean compileOrRestore(CompileTargetModel target, Set<String> files, boolean fullBuild, String flags, GraphOperation graph,
+            CacheOperation cache) {
+        Set<String> restored = Set.of();
+        if(cache != null) {
+            try (ProfileUtils.Phase phase = ProfileUtils.start("cache-restore")) {
+                restored = cache.restore(files, target.classPath(), graph);
+                phase.addFiles(restored.size());
+            }
+        }
+        Set<String> missing = new HashSet<>(files);
+        missing.removeAll(restored);
+        // the restored classes are in the class path, so only the missing files are compiled.
+        graph.deleteClassFiles(missing);
+        if(!missing.isEmpty() && !compileFiles(target, new ArrayList<>(missing), fullBuild && restored.isEmpty(), flags, graph)) {
+            return false;
+        }
+        updateGraph(graph);
+        if(cache == null) return true;
+        Set<String> invalid = restored.isEmpty() ? Set.of() : cache.getInvalid(graph);
+        if(!invalid.isEmpty()) {
+            graph.deleteClassFiles(invalid);
+            if(!compileFiles(target, new ArrayList<>(invalid), false, flags, graph)) return false;
+            updateGraph(graph);
+            missing.addAll(invalid);
+        }
+        try (ProfileUtils.Phase phase = ProfileUtils.start("cache-store")) {
+            cache.store(missing, target.classPath(), graph);
+            phase.addFiles(missing.size());
+        }
+        return true;
+    }
+    private void updateGraph(GraphOperation graph) {
+        ProfileUtils.measure("graph", graph::update);
+    }
+    /**
+     * Compile the given source files with the in-process compiler or the javac command.
+     * @param target - the source tree and its class path.
+     * @param files - the source files to compile.
+     * @param fullBuild - true if the class path doesn't exists.
+     * @param flags - the compile flags.
+     * @param graph - the graph of the class path, used to find the lib dependencies referenced by the files.
+     * @return true if the compilation succeed, false otherwise.
+     */
+    private boolean compileFiles(CompileTargetModel target, List<String> files, boolean fullBuild, String flags,
+            GraphOperation graph) {
+        try (ProfileUtils.Phase phase = ProfileUtils.start("javac")) {
+            phase.addFiles(files.size());
+            return compileFiles(target, files, fullBuild, flags, graph, getPrefixValue("--engine"));
+        }
+    }
+    /**
+     * Compile the given source files.
+     * <p> The in-process compiler only receives the lib dependencies whose packages are referenced by the files,
+     * or by each partition when they are compiled at the same time.
+     */
+    private boolean compileFiles(CompileTargetModel target, List<String> files, boolean fullBuild, String flags,
+            GraphOperation graph, String engine) {
+        String classPath = target.classPath();
+        if(!"shell".equals(engine) && compilerOperation.isAvailable()) {
+            int jobs = getJobs();
+            boolean useLib = !oIncludeLib.equals("ignore") && !compileBuilder.preparedLibFiles(CompileBuilder.DEFAULT_LIB_PATH).isBlank();
+            ClassPathOperation libClassPath = useLib ?
+                new ClassPathOperation(CompileBuilder.DEFAULT_LIB_PATH, graph, fileOperation) :
+                null;
+            List<List<List<String>>> levels = jobs > 1 ?
+                ProfileUtils.measure("partition", () -> new PartitionOperation().getPartitions(files, jobs)) :
+                List.of();
+            // only worth it when at least one level has partitions to compile at the same time.
+            if(levels.stream().anyMatch(l -> l.size() > 1)) {
+                return compilerOperation.compile(
+                        levels,
+                        classPath,
+                        p -> useLib ?
+                            getLibAssets(target, "", libClassPath.getLibFiles(p)) :
+                            getAssets(target, "", oIncludeLib),
+                        getAssets(target, "", oIncludeLib),
+                        flags,
+                        target.root(),
+                        jobs
+                );
+            }
+            String assets = getAssets(target, fullBuild ? "" : classPath, oIncludeLib);
+            if(!useLib) return compilerOperation.compile(files, classPath, assets, flags);
+            String libFiles = ProfileUtils.measure("prune", () -> libClassPath.getLibFiles(files));
+            System.console().printf("[Info] Compiling against %s of %s lib dependencies.%n",
+                    libFiles.isBlank() ? 0 : libFiles.split(";").length, libClassPath.getLibCount());
+            return compilerOperation.compile(
+                    files,
+                    classPath,
+                    getLibAssets(target, fullBuild ? "" : classPath, libFiles),
+                    assets,
+                    flags
+            );
+        }
         String command = "";
-        File classPath = new File(oClassPath);
-        if(!classPath.exists()) {
+        if(fullBuild && target.assets().isBlank()) {
             command = compileBuilder.getCommand(
-                    oSourcePath,
-                    oClassPath,
-                    Optional.ofNullable(flags).orElse(oCompileFlags),
+                    target.sourcePath(),
+                    classPath,
+                    flags,
                     oIncludeLib
             );
         } else {
             command = compileBuilder.getReCompileCommand(
-                    oSourcePath,
-                    oClassPath,
-                    Optional.ofNullable(flags).orElse(oCompileFlags),
-                    oIncludeLib
+                    target.sourcePath(),
+                    classPath,
+                    flags,
+                    oIncludeLib,
+                    files,
+                    target.assets()
             );
         }
-        processOperation.executeCommands(command);
+        return processOperation.executeCommands(command);
+    }
+    /**
+     * Get the class path entries used to compile the target.
+     * @param target - the source tree, its assets are placed after the class path.
+     * @param classPath - the class path of the target, empty to exclude it.
+     * @param includeLib - to include or not the lib dependencies.
+     * @return the entries separated by ;.
+     */
+    private String getAssets(CompileTargetModel target, String classPath, String includeLib) {
+        String assets = compileBuilder.getAssets(classPath, includeLib);
+        if(target.assets().isBlank()) return assets;
+        return assets.isBlank() ? target.assets() : String.format("%s;%s", target.assets(), assets);
+    }
+    /**
+     * Get the class path entries used to compile the target with only the given lib dependencies.
+     * @param target - the source tree, its assets are placed after the class path.
+     * @param classPath - the class path of the target, empty to exclude it.
+     * @param libFiles - the lib .jar files separated by ;, empty if none.
+     * @return the entries separated by ;.
+     */
+    private String getLibAssets(CompileTargetModel target, String classPath, String libFiles) {
+        String assets = getAssets(target, classPath, "ignore");
+        if(libFiles.isBlank()) return assets;
+        return assets.isBlank() ? libFiles : String.format("%s;%s", assets, libFiles);
+    }
+    /**
+     * Compile the test tree against the class path and run its tests.
+     * <p> The test tree is the Test-Path of the configuration, compiled incrementally into its own class path.
+     * <p> Use --jobs to limit the number of tests to run at the same time.
+     * <p> Use --affected to only run the tests that depend on the classes modified since the tests ran.
+     * @return true if every test passed, false otherwise.
+     */
+    public boolean testOperation() {
+        if(commandUtils.showHelpOnTest()) return true;
+        return ProfileUtils.measure("test", this::runTests);
+    }
+    private boolean runTests() {
+        if(oTestPath == null || oTestPath.isBlank() || !new File(oTestPath).exists()) {
+            System.console().printf("[Info] The Test-Path %s doesn't exist, there are no tests to run%n", oTestPath);
+            return true;
+        }
+        String testClassPath = getTestClassPath();
+        String testRoot = compileBuilder.getPackageRoot(oTestPath);
+        String flags = compileBuilder.prepareCompileFlags(Optional.ofNullable(getPrefixValue("-f")).orElse(oCompileFlags));
+        // the tests that use a class path class whose abi changed are compiled again with the modified ones.
+        Map<String, String> classAbis = new GraphOperation(oClassPath, root).load().getClassAbis();
+        GraphOperation testGraph = new GraphOperation(testClassPath, testRoot).load();
+        Set<String> dependents = testGraph.getAssetDependentFiles(classAbis);
+        // the build cache can't verify the classes of other class paths, so the tests are always compiled.
+        boolean compiled = ProfileUtils.measure("test-compile", () -> compileOperation(
+                    new CompileTargetModel(oTestPath, testClassPath, oClassPath, testRoot), null, dependents, flags, null));
+        if(!compiled) return false;
+        testGraph.saveAssetAbis(classAbis);
+        TestOperation tests = new TestOperation(
+                testClassPath,
+                compileBuilder.getAssets(String.format("%s;%s", testClassPath, oClassPath), oIncludeLib),
+                processOperation,
+                getJobs()
+        ).load(oClassPath);
+        List<String> testClasses = tests.getTestClasses(oTestClass);
+        if(getPrefixIndex("--affected") != -1) testClasses = tests.getAffectedTests(testClasses, oClassPath, root);
+        return tests.run(tests.sortByHistory(testClasses));
+    }
+    /**
+     * Get the path where the test class files are.
+     * <p> Its a sibling of the class path so the test classes are not part of the project graph or .jar file.
+     * @return the class path with the -test suffix.
+     */
+    private String getTestClassPath() {
+        return Paths.get(oClassPath).normalize().toString() + "-test";
     }
     /**
      * Get command to run the project using a main class entry.
      * <p> the main class entry is set by the configuration file or use -e.
+     * <p> Use --hot to keep the program running while the source files are re-compiled each time they are saved.
+     * <p> Use --cds to run the .jar file with a class data sharing archive, created by the first run.
+     * @return true if the program exit without errors, false otherwise.
      */
-    public void runOperation() {
+    public boolean runOperation() {
 
-        if(commandUtils.showHelpOnRun()) return;
+        if(commandUtils.showHelpOnRun()) return true;
+        if(getPrefixIndex("--hot") != -1) {
+            hotRunOperation();
+            return true;
+        }
+        if(getPrefixIndex("--cds") != -1) {
+            return ProfileUtils.measure("run", this::runWithSharedArchive);
+        }
 
+        return ProfileUtils.measure("run", () -> processOperation.executeCommands(getRunCommand()));
+    }
+    /**
+     * Get the command to run the project.
+     * <p> the main class entry is set by the configuration file or use -e.
+     * @return the run command.
+     */
+    private String getRunCommand() {
         String entry = getPrefixValue("-e");
 
         String command = "";
@@ -121,31 +448,124 @@ public class Operation {
                         oIncludeLib
                 );
         }
-        processOperation.executeCommands(command);
+        return command;
+    }
+    /**
+     * Run the .jar file of the project using its class data sharing archive.
+     * <p> When the archive is missing or the .jar file changed this run is the training run that creates it.
+     * <p> The .jar file is not run when the class path was compiled after it, since it doesn't have the last changes.
+     * <p> The -e main class is run from the .jar file instead of the one in its manifest.
+     * @return true if the program exit without errors, false otherwise.
+     */
+    private boolean runWithSharedArchive() {
+        RunBuilder runBuilder = new RunBuilder(root, fileOperation);
+        String jarFile = runBuilder.getProjectName() + ".jar";
+        CdsOperation cds = new CdsOperation(jarFile);
+        if(!cds.hasJar()) {
+            System.console().printf("[Warning] The shared archive needs the %s file, use --jar --cds to create it%n", jarFile);
+            return processOperation.executeCommands(getRunCommand());
+        }
+        if(cds.isOlderThan(oClassPath)) {
+            System.console().printf("[Error] The %s file is older than the class path %s, use --jar --cds to create it again%n",
+                    jarFile, oClassPath);
+            return false;
+        }
+        String entry = getPrefixValue("-e");
+        boolean training = !cds.isValid();
+        boolean success = processOperation.executeCommands(entry == null ?
+                runBuilder.getJarCommand(jarFile, cds.getOption(), "") :
+                runBuilder.getJarCommand(jarFile, cds.getOption(), entry, ""));
+        if(training) cds.record(success);
+        return success;
+    }
+    /**
+     * Run the program with the hot reload agent and swap the re-compiled classes into it.
+     * <p> When only method bodies changed the classes are redefined in the running program,
+     * otherwise the program is restarted.
+     */
+    private void hotRunOperation() {
+        HotReloadOperation hotReload = new HotReloadOperation(oClassPath);
+        RunBuilder runBuilder = new RunBuilder(root, fileOperation);
+        String agentOption = hotReload.getAgentOption();
+        if(agentOption.isBlank()) return;
+        hotReload.snapshot();
+        processOperation.startCommand(runBuilder.getCommandWithOption(getRunCommand(), agentOption));
+        new WatchOperation().watch(oSourcePath, changed -> {
+            System.console().printf("[Info] %s files changed%n", changed.size());
+            if(!compileOperation(new ArrayList<>(changed)) || hotReload.reload()) return;
+            processOperation.stopCommand();
+            hotReload.snapshot();
+            processOperation.startCommand(runBuilder.getCommandWithOption(getRunCommand(), agentOption));
+        });
+        processOperation.stopCommand();
+    }
+    /**
+     * Watch the source path and re-compile the modified files when they are saved.
+     * <p> Use --restart to run the project again after each successful compilation.
+     */
+    public void watchOperation() {
+        if(commandUtils.showHelpOnWatch()) return;
+        boolean restart = getPrefixIndex("--restart") != -1;
+        if(compileOperation(null) && restart) {
+            processOperation.startCommand(getRunCommand());
+        }
+        new WatchOperation().watch(oSourcePath, changed -> {
+            System.console().printf("[Info] %s files changed%n", changed.size());
+            if(compileOperation(new ArrayList<>(changed)) && restart) {
+                processOperation.stopCommand();
+                processOperation.startCommand(getRunCommand());
+            }
+        });
+        processOperation.stopCommand();
     }
     /**
      * Get the command to create the project .jar file.
      * <p> using manifesto file to get the entry point and lib dependencies when they are not included in the build.
      * <p> using main class package name as the entry point.
      * <p> If there are lib dependencies and you have include in your config, they will be copied and extracted to include them in the build process.
+     * <p> The .jar file is written in-process, use --engine shell to use the jar command instead.
+     * <p> Use --level to change the compression level, 0 stores the entries without compression.
+     * <p> The lib dependencies are merged from their .jar files without extracting them,
+     * use --duplicates to choose what happens with the entries present in more than one place.
+     * <p> Use --cds to also create the class data sharing archive of the .jar file with a training run.
+     * @return true if the .jar file was created, false otherwise.
      */
-    public void createJarOperation() {
-        if(commandUtils.showHelpOnCreateJar()) return;
-
-        // append jar extraction
-        String libPath = getPrefixValue("--l");
-        String extractPath = getPrefixValue("--ex");
-        String libCommand = new LibBuilder(root, fileOperation).getCommand(
-                Optional.ofNullable(libPath).orElse("lib"),
-                Optional.ofNullable(extractPath).orElse("extractionFiles"),
-                "",
-                oIncludeLib
-
-        );
-        if(!libCommand.isBlank()) {
-            processOperation.executeCommands(libCommand);
+    public boolean createJarOperation() {
+        if(commandUtils.showHelpOnCreateJar()) return true;
+        if(!ProfileUtils.measure("jar", this::createJar)) return false;
+        if(getPrefixIndex("--cds") == -1) return true;
+        return ProfileUtils.measure("cds", this::createSharedArchive);
+    }
+    /**
+     * Run the .jar file once to create its class data sharing archive next to it.
+     * <p> The training run is skipped when the archive was created from the same .jar content.
+     * @return true if the archive is valid, false otherwise.
+     */
+    private boolean createSharedArchive() {
+        RunBuilder runBuilder = new RunBuilder(root, fileOperation);
+        String jarFile = runBuilder.getProjectName() + ".jar";
+        CdsOperation cds = new CdsOperation(jarFile);
+        if(cds.isValid()) {
+            System.console().printf("[Info] %s%n", "The shared archive is up to date.");
+            return true;
         }
+        System.console().printf("[Info] %s%n", "Training run to create the shared archive.");
+        return cds.record(processOperation.executeCommands(runBuilder.getJarCommand(jarFile, cds.getOption(), "")));
+    }
+    private boolean createJar() {
+
+        String libPath = Optional.ofNullable(getPrefixValue("--l")).orElse("lib");
         // append jar creation
+        if(!isShellEngine()) {
+            JarBuilder jarBuilder = new JarBuilder(root, fileOperation);
+            return new JarOperation(getCompressionLevel(), getDuplicatesPolicy()).createJar(
+                    jarBuilder.getProjectName() + ".jar",
+                    jarBuilder.getManifestFile(),
+                    jarBuilder.getMainClass(oSourcePath, oClassPath),
+                    List.of(oClassPath),
+                    jarBuilder.getLibJars(libPath, oIncludeLib)
+            );
+        }
         String flags = getPrefixValue("-f");
         String jarCommand = new JarBuilder(root, fileOperation).getCommand(
                 oSourcePath,
@@ -153,33 +573,195 @@ public class Operation {
                 Optional.ofNullable(flags).orElse(""),
                 oIncludeLib
         );
-        processOperation.executeCommands(jarCommand);
+        return processOperation.executeCommands(jarCommand);
+    }
+    /**
+     * Create a runtime image with the JDK modules used by the project and a launcher script.
+     * <p> The modules are found with jdeps over the Class-Path and the lib dependencies, and the runtime is created with jlink.
+     * <p> The launcher uses the Main-Class of the configuration to run the .jar file of the project.
+     * <p> Use --o to change the image directory, image is used as default value.
+     * @return true if the image was created, false otherwise.
+     */
+    public boolean imageOperation() {
+        if(commandUtils.showHelpOnImage()) return true;
+        return ProfileUtils.measure("image", this::createImage);
+    }
+    private boolean createImage() {
+        JarBuilder jarBuilder = new JarBuilder(root, fileOperation);
+        String jarFile = jarBuilder.getProjectName() + ".jar";
+        if(!new File(jarFile).exists()) {
+            System.console().printf("[Error] The runtime image needs the %s file, use --jar --image to create it%n", jarFile);
+            return false;
+        }
+        String mainClass = config.get("Main-Class");
+        if(mainClass == null || mainClass.isBlank()) mainClass = jarBuilder.getMainClass(oSourcePath, oClassPath);
+        String libPath = Optional.ofNullable(getPrefixValue("--l")).orElse("lib");
+        // the lib dependencies are analyzed unless they are ignored, but only copied when they aren't merged into the .jar file.
+        List<String> libJars = "ignore".equals(oIncludeLib) ? List.of() : jarBuilder.getLibJars(libPath, "include");
+        return new ImageOperation(oClassPath).createImage(
+                Optional.ofNullable(getPrefixValue("--o")).orElse("image"),
+                jarFile,
+                mainClass,
+                libJars,
+                !"include".equals(oIncludeLib)
+        );
+    }
+    /**
+     * Extract the lib dependencies used by the jar command of the shell engine.
+     * <p> Each .jar file is extracted by its own child process, running at the same time up to the number of jobs.
+     * <p> The in-process .jar creation merges the lib dependencies without extracting them, so nothing is done.
+     * @return true if every dependency was extracted, false otherwise.
+     */
+    public boolean extractLibOperation() {
+        if(!isShellEngine()) return true;
+        String libPath = Optional.ofNullable(getPrefixValue("--l")).orElse("lib");
+        String extractPath = getPrefixValue("--ex");
+        String libCommand = new LibBuilder(root, fileOperation).getCommand(
+                libPath,
+                Optional.ofNullable(extractPath).orElse("extractionFiles"),
+                "",
+                oIncludeLib
+
+        );
+        TaskOperation extractions = new TaskOperation(getJobs());
+        for(String c: libCommand.split(System.lineSeparator())) {
+            if(!c.isBlank()) extractions.addTask(c, () -> processOperation.executeCommands(c));
+        }
+        return extractions.executeAll();
+    }
+    /**
+     * Find if the commands are executed as child processes instead of in-process.
+     * @return true if --engine shell is used, false otherwise.
+     */
+    private boolean isShellEngine() {
+        return "shell".equals(getPrefixValue("--engine"));
     }
     /**
      * Remove the class path of the project in order to compile from scratch.
      * <p> the compile operation should use all the possible paths if class paths doesn't exists.
+     * @return true if the class path doesn't exist anymore, false otherwise.
      */
-    public void removeOperation() {
-        if(commandUtils.showHelpOnRemove()) return;
+    public boolean removeOperation() {
+        if(commandUtils.showHelpOnRemove()) return true;
+        // there is nothing to remove on the first build.
+        if(!new File(oClassPath).exists()) return true;
         String removeClassPath = "rm -r " + oClassPath;
-        processOperation.executeCommands(removeClassPath);
+        return processOperation.executeCommands(removeClassPath);
     }
     /**
      * Add a .jar dependency to a destination path.
      * <p> To give the destination path use --d.
      * <p> If destination path isn't provided lib is use as default value.
+     * <p> A group:artifact:version dependency is resolved with its transitive dependencies from a local Maven repository,
+     * use --repo to change it, ~/.m2/repository is use as default value.
+     * <p> Without a dependency the .jar files of the lockfile are copied again when they are missing,
+     * and nothing is done when there is no lockfile.
+     * @return true if the dependency was added, false otherwise.
      */
-    public void addDependency() {
-        if(commandUtils.showHelpOnAddDependecy()) return;
+    public boolean addDependency() {
+        if(commandUtils.showHelpOnAddDependecy()) return true;
         String prefix = "--add";
         String dependency = getPrefixValue(prefix);
-        if(dependency == null) {
-            return;
-        }
         String target = getPrefixValue("--d");
         if(target == null) target = "lib";
+        String repository = Optional.ofNullable(getPrefixValue("--repo"))
+            .orElse(Paths.get(System.getProperty("user.home"), ".m2", "repository").toString());
+        if(dependency == null || dependency.startsWith("-")) {
+            // without coordinates there is only something to do when the dependencies were locked before.
+            if(!Files.exists(Paths.get(DependencyOperation.LOCK_FILE))) return true;
+            return ProfileUtils.measure("resolve", new DependencyOperation(repository, target, fileOperation)::sync);
+        }
+        if(!new File(dependency).exists() && ArtifactModel.parse(dependency) != null) {
+            DependencyOperation resolver = new DependencyOperation(repository, target, fileOperation);
+            return ProfileUtils.measure("resolve", () -> resolver.add(dependency));
+        }
         Path destination = Paths.get(target).resolve(Paths.get(dependency).getFileName().toString().replace(".jar", ""));
-        fileOperation.copyFileToTarget(dependency, destination.toString());
+        return fileOperation.copyFileToTarget(dependency, destination.toString());
+    }
+    /**
+     * Get the max number of compile tasks or build steps to run at the same time.
+     * <p> Use --jobs to change it, by default is the number of available processors.
+     * @return the number of jobs.
+     */
+    public int getJobs() {
+        String jobs = getPrefixValue("--jobs");
+        if(jobs == null) return Runtime.getRuntime().availableProcessors();
+        try {
+            return Math.max(1, Integer.parseInt(jobs));
+        } catch(NumberFormatException e) {
+            System.console().printf("[Warning] Invalid --jobs value %s, using 1%n", jobs);
+            return 1;
+        }
+    }
+    /**
+     * Get the compression level of the .jar file.
+     * <p> Use --level with a value from 0 to 9, 0 stores the entries without compression.
+     * @return the compression level.
+     */
+    private int getCompressionLevel() {
+        String level = getPrefixValue("--level");
+        if(level == null) return JarOperation.DEFAULT_LEVEL;
+        try {
+            return Math.max(0, Math.min(9, Integer.parseInt(level)));
+        } catch(NumberFormatException e) {
+            System.console().printf("[Warning] Invalid --level value %s, using the default one%n", level);
+            return JarOperation.DEFAULT_LEVEL;
+        }
+    }
+    /**
+     * Get the build cache used by the compilation.
+     * <p> Use --no-cache to compile without the cache, and --cache-size to change its max size in MB.
+     * @param flags - the compile flags.
+     * @return the build cache or null if its disabled.
+     */
+    private CacheOperation getCacheOperation(String flags) {
+        if(getPrefixIndex("--no-cache") != -1) return null;
+        String compilerVersion = getCompilerVersion();
+        if(compilerVersion.isBlank()) return null;
+        return new CacheOperation(getCacheSize()).prepare(flags, compileBuilder.getAssets("", oIncludeLib), compilerVersion);
+    }
+    /**
+     * Get the version of the compiler used by the compile operation.
+     * <p> The javac command of the shell engine might be of another jdk than the one running this program.
+     * @return the compiler version, empty if the javac command couldn't be executed.
+     */
+    private String getCompilerVersion() {
+        if(!isShellEngine() && compilerOperation.isAvailable()) return Runtime.version().toString();
+        ProcessResultModel result = processOperation.execute("javac -version", false);
+        if(!result.isSuccess()) return "";
+        return (result.output() + result.error()).trim();
+    }
+    /**
+     * Show the statistics of the build cache.
+     */
+    public void cacheStatsOperation() {
+        new CacheOperation(getCacheSize()).showStats();
+    }
+    private long getCacheSize() {
+        String size = getPrefixValue("--cache-size");
+        if(size == null) return CacheOperation.DEFAULT_MAX_SIZE;
+        try {
+            return Math.max(0, Long.parseLong(size)) * 1024 * 1024;
+        } catch(NumberFormatException e) {
+            System.console().printf("[Warning] Invalid --cache-size value %s, using the default one%n", size);
+            return CacheOperation.DEFAULT_MAX_SIZE;
+        }
+    }
+    /**
+     * Get the policy for the entries present in more than one place of the .jar file.
+     * <p> Use --duplicates with first, error or merge, by default the first entry is used.
+     * @return the duplicates policy.
+     */
+    private String getDuplicatesPolicy() {
+        String policy = getPrefixValue("--duplicates");
+        if(policy == null) return JarOperation.FIRST_POLICY;
+        return switch(policy) {
+            case JarOperation.FIRST_POLICY, JarOperation.ERROR_POLICY, JarOperation.MERGE_POLICY -> policy;
+            default -> {
+                System.console().printf("[Warning] Invalid --duplicates value %s, using the first entry%n", policy);
+                yield JarOperation.FIRST_POLICY;
+            }
+        };
     }
     /**
      * Get the command line value of a certain prefix.
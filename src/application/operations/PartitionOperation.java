@@ -0,0 +1,205 @@
+package application.operations;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Split the source files into partitions that can be compiled at the same time.
+ * <p> The partitions are the strongly connected components of the package dependency graph.
+ * <p> Each level contains partitions that only depend on the partitions of the previous levels.
+ */
+public class PartitionOperation {
+
+    public static final int MIN_PARTITION_FILES = 100;
+
+    private Map<String, List<String>> packageFiles;
+    private Map<String, Set<String>> packageDependencies;
+
+    // tarjan state
+    private Map<String, Integer> index;
+    private Map<String, Integer> lowLink;
+    private List<String> stack;
+    private Set<String> onStack;
+    private List<Set<String>> components;
+
+    public PartitionOperation() {
+        packageFiles = new HashMap<>();
+        packageDependencies = new HashMap<>();
+    }
+
+    /**
+     * Group the source files in levels of independent partitions.
+     * <p> The partitions of the same level are merged to have at most jobs partitions
+     * and at least {@link #MIN_PARTITION_FILES} files in each one.
+     * @param files - the .java files to compile.
+     * @param jobs - the max number of partitions to compile at the same time.
+     * @return the levels in compile order with the files of each partition.
+     */
+    public List<List<List<String>>> getPartitions(List<String> files, int jobs) {
+        readPackages(files);
+        List<Set<String>> order = getComponents();
+
+        // components are found with their dependencies first.
+        Map<String, Integer> packageLevel = new HashMap<>();
+        Map<Integer, List<List<String>>> levels = new TreeMap<>();
+        for(Set<String> component: order) {
+            int level = 0;
+            for(String p: component) {
+                for(String d: packageDependencies.get(p)) {
+                    if(!component.contains(d)) level = Math.max(level, packageLevel.get(d) + 1);
+                }
+            }
+            List<String> componentFiles = new ArrayList<>();
+            for(String p: component) {
+                packageLevel.put(p, level);
+                componentFiles.addAll(packageFiles.get(p));
+            }
+            levels.computeIfAbsent(level, k -> new ArrayList<>()).add(componentFiles);
+        }
+
+        List<List<List<String>>> partitions = new ArrayList<>();
+        for(List<List<String>> level: levels.values()) {
+            partitions.add(merge(level, jobs));
+        }
+        return partitions;
+    }
+    /**
+     * Merge the components of one level into balanced partitions.
+     * <p> The biggest component is placed first into the partition with fewer files.
+     */
+    private List<List<String>> merge(List<List<String>> level, int jobs) {
+        int total = level.stream().mapToInt(List::size).sum();
+        int count = Math.max(1, Math.min(Math.min(jobs, level.size()), total / MIN_PARTITION_FILES));
+        List<List<String>> merged = new ArrayList<>();
+        for(int i=0; i<count; ++i) {
+            merged.add(new ArrayList<>());
+        }
+        level.sort(Comparator.comparingInt(List<String>::size).reversed());
+        for(List<String> component: level) {
+            merged
+                .stream()
+                .min(Comparator.comparingInt(List::size))
+                .get()
+                .addAll(component);
+        }
+        return merged;
+    }
+    /**
+     * Read the package and import declarations of each file.
+     * <p> Only the file header is read, stopping at the first type declaration.
+     * <p> The block comments are skipped even when they span several lines.
+     */
+    private void readPackages(List<String> files) {
+        Map<String, Set<String>> imports = new HashMap<>();
+        for(String f: files) {
+            String packageName = "";
+            Set<String> fileImports = new HashSet<>();
+            try (BufferedReader reader = Files.newBufferedReader(Paths.get(f), StandardCharsets.UTF_8)) {
+                String line;
+                boolean comment = false;
+                while((line = reader.readLine()) != null) {
+                    line = line.trim();
+                    // remove the block comments at the start of the line.
+                    while(comment || line.startsWith("/*")) {
+                        int end = line.indexOf("*/", comment ? 0 : 2);
+                        comment = end == -1;
+                        line = comment ? "" : line.substring(end + 2).trim();
+                        if(comment) break;
+                    }
+                    if(line.isEmpty() || line.startsWith("//") || line.startsWith("@")) continue;
+                    if(line.startsWith("package ")) {
+                        packageName = line.substring("package ".length()).replace(";", "").trim();
+                    } else if(line.startsWith("import ")) {
+                        fileImports.add(line
+                                .substring("import ".length())
+                                .replace("static ", "")
+                                .replace(".*", "")
+                                .replace(";", "")
+                                .trim()
+                        );
+                    } else {
+                        break;
+                    }
+                }
+            } catch(IOException e) {
+                System.console().printf("[Warning] Couldn't read the imports of %s%n", f);
+            }
+            packageFiles.computeIfAbsent(packageName, k -> new ArrayList<>()).add(f);
+            imports.computeIfAbsent(packageName, k -> new HashSet<>()).addAll(fileImports);
+        }
+        for(Map.Entry<String, Set<String>> e: imports.entrySet()) {
+            Set<String> dependencies = new HashSet<>();
+            for(String i: e.getValue()) {
+                String p = getImportPackage(i);
+                if(p != null && !p.equals(e.getKey())) dependencies.add(p);
+            }
+            packageDependencies.put(e.getKey(), dependencies);
+        }
+    }
+    /**
+     * Get the project package of an import, trying from the longest name to support nested classes.
+     * @return the package or null if its not a project package.
+     */
+    private String getImportPackage(String name) {
+        String current = name;
+        while(!current.isEmpty()) {
+            if(packageFiles.containsKey(current)) return current;
+            int dot = current.lastIndexOf('.');
+            if(dot == -1) return null;
+            current = current.substring(0, dot);
+        }
+        return null;
+    }
+    /**
+     * Get the strongly connected components using the tarjan algorithm.
+     * @return the components where every component comes after the ones it depends on.
+     */
+    private List<Set<String>> getComponents() {
+        index = new HashMap<>();
+        lowLink = new HashMap<>();
+        stack = new ArrayList<>();
+        onStack = new HashSet<>();
+        components = new ArrayList<>();
+        for(String p: new TreeMap<>(packageFiles).keySet()) {
+            if(!index.containsKey(p)) connect(p);
+        }
+        return components;
+    }
+    private void connect(String p) {
+        index.put(p, index.size());
+        lowLink.put(p, index.get(p));
+        stack.add(p);
+        onStack.add(p);
+        for(String d: packageDependencies.get(p)) {
+            if(!index.containsKey(d)) {
+                connect(d);
+                lowLink.put(p, Math.min(lowLink.get(p), lowLink.get(d)));
+            } else if(onStack.contains(d)) {
+                lowLink.put(p, Math.min(lowLink.get(p), index.get(d)));
+            }
+        }
+        if(lowLink.get(p).equals(index.get(p))) {
+            Set<String> component = new HashSet<>();
+            String current;
+            do {
+                current = stack.remove(stack.size() - 1);
+                onStack.remove(current);
+                component.add(current);
+            } while(!current.equals(p));
+            components.add(component);
+        }
+    }
+}
@@ -1,42 +1,133 @@
 package application.operations;
 
-import java.io.BufferedReader;
 import java.io.Console;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
+import java.io.PrintStream;
+
+import application.models.ProcessResultModel;
+import application.utils.ProfileUtils;
+import application.utils.RingBuffer;
 
 public class ProcessOperation {
 
     private static final String LOCAL_PATH = "." + File.separator;
     private static final boolean OS_IS_WINDOWS = System.getProperty("os.name").toLowerCase().contains("windows");
     private static final String CONSOLE_FORMAT = "[%s] %s%n";
+    private static final int BUFFER_SIZE = 8192;
+    // the last 64KB of each stream are kept in memory.
+    private static final int CAPTURE_CAPACITY = 64 * 1024;
     private static Console console = System.console();
 
+    private volatile Process background;
+    // stops the running child process when this process ends, registered once for every started command.
+    private Thread shutdownHook;
 
-    public void executeCommands(String command) {
-        console.printf(CONSOLE_FORMAT, "Info", "Executing commands.");
-        try {
-            if(command == null || command.isBlank()) {
-                command = "echo Happy-Day";
-            }
+    /**
+     * Execute the command in a child shell process.
+     * @param command - the command to execute.
+     * @return true if the process exit without errors, false otherwise.
+     */
+    public boolean executeCommands(String command) {
+        return ProfileUtils.measure("process", () -> execute(command)).isSuccess();
+    }
+    /**
+     * Execute the command in a child shell process and wait for it.
+     * <p> The standard output and error are drained at the same time by two threads,
+     * so a child that fills one of the pipes can't block while the other one is read.
+     * <p> The output is written to this process output as its read and the last bytes of each stream are captured.
+     * @param command - the command to execute.
+     * @return the exit code, elapsed time and captured output of the process.
+     */
+    public ProcessResultModel execute(String command) {
+        return execute(command, true);
+    }
+    /**
+     * Execute the command in a child shell process and wait for it.
+     * @param command - the command to execute.
+     * @param echo - true to write the command and its output to this process output, false to only capture it.
+     * @return the exit code, elapsed time and captured output of the process.
+     */
+    public ProcessResultModel execute(String command, boolean echo) {
+        if(command == null || command.isBlank()) {
+            command = "echo Happy-Day";
+        }
+        if(echo) {
+            console.printf(CONSOLE_FORMAT, "Info", "Executing commands.");
             console.printf(CONSOLE_FORMAT, "Command", command);
-            Process p = getProcessForCommandExecution(command).start();
-            handleProcessStream(p);
-            p.waitFor();
-            p.destroy();
-        } catch(IOException | InterruptedException e) {
+        }
+        RingBuffer output = new RingBuffer(CAPTURE_CAPACITY);
+        RingBuffer error = new RingBuffer(CAPTURE_CAPACITY);
+        long start = System.nanoTime();
+        int exitCode = -1;
+        Process p = null;
+        try {
+            p = getProcessForCommandExecution(command).start();
+            Thread outputReader = drain(p.getInputStream(), echo ? System.out : null, output, "process-stdout");
+            Thread errorReader = drain(p.getErrorStream(), echo ? System.err : null, error, "process-stderr");
+            exitCode = p.waitFor();
+            outputReader.join();
+            errorReader.join();
+        } catch(IOException e) {
+            e.printStackTrace();
+        } catch(InterruptedException e) {
             Thread.currentThread().interrupt();
             e.printStackTrace();
+        } finally {
+            if(p != null) p.destroy();
         }
+        ProcessResultModel result = new ProcessResultModel(command, exitCode, System.nanoTime() - start,
+                output.toString(), error.toString());
+        if(echo && !result.isSuccess()) {
+            console.printf("[Warning] The process exit with code %s after %s ms%n", exitCode, result.elapsedMillis());
+        }
+        return result;
+    }
+    /**
+     * Start the command in a child process without waiting for it.
+     * <p> The child process shares the console of this process and is stopped when this process ends.
+     * @param command - the command to execute.
+     */
+    public void startCommand(String command) {
+        if(command == null || command.isBlank()) return;
+        try {
+            console.printf(CONSOLE_FORMAT, "Command", command);
+            background = getProcessForCommandExecution(command).inheritIO().start();
+            if(shutdownHook == null) {
+                shutdownHook = new Thread(this::destroyBackground);
+                Runtime.getRuntime().addShutdownHook(shutdownHook);
+            }
+        } catch(IOException e) {
+            e.printStackTrace();
+        }
+    }
+    /**
+     * Stop the child process started with {@link #startCommand(String)} if its still running.
+     */
+    public void stopCommand() {
+        if(background == null) return;
+        background.descendants().forEach(ProcessHandle::destroy);
+        background.destroy();
+        try {
+            background.waitFor();
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        background = null;
+    }
+    private void destroyBackground() {
+        Process running = background;
+        if(running == null) return;
+        running.descendants().forEach(ProcessHandle::destroy);
+        running.destroy();
     }
     private ProcessBuilder getProcessForCommandExecution(String command) {
         ProcessBuilder builder = null;
         if(OS_IS_WINDOWS) {
             builder = new ProcessBuilder("pwsh", "-NoProfile", "-Command", command);
         } else {
-            builder = new ProcessBuilder("bin/bash", "-c", command);
+            builder = new ProcessBuilder("/bin/bash", "-c", command);
         }
         try {
             builder.directory(new File(new File(LOCAL_PATH).getCanonicalPath()));
@@ -45,22 +136,33 @@ public class ProcessOperation {
         }
         return builder;
     }
-    private void handleProcessStream(Process p) {
-        if(p.getInputStream() != null) {
-            handleInputStream(p.getInputStream());
-        }
-        if(p.getErrorStream() != null) {
-            handleInputStream(p.getErrorStream());
-        }
-    }
-    private void handleInputStream(InputStream input) {
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input))) {
-            String line;
-            while((line = reader.readLine()) != null) {
-                System.console().printf("%s%n", line);
+    /**
+     * Start a thread that copies the stream to the target and the capture buffer until its closed.
+     * @param input - the process stream to drain.
+     * @param target - where the read bytes are written, null to only capture them.
+     * @param capture - the buffer that keeps the last read bytes.
+     * @param name - the thread name.
+     * @return the started thread.
+     */
+    private Thread drain(InputStream input, PrintStream target, RingBuffer capture, String name) {
+        Thread reader = new Thread(() -> {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            try (InputStream in = input) {
+                int read;
+                while((read = in.read(buffer)) != -1) {
+                    capture.write(buffer, 0, read);
+                    if(target == null) continue;
+                    synchronized(target) {
+                        target.write(buffer, 0, read);
+                        target.flush();
+                    }
+                }
+            } catch(IOException e) {
+                e.printStackTrace();
             }
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+        }, name);
+        reader.setDaemon(true);
+        reader.start();
+        return reader;
     }
 }
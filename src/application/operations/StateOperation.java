@@ -0,0 +1,185 @@
+package application.operations;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import application.models.FileStateModel;
+
+/**
+ * Build state manifest with the content hash, size and last modified time of each compiled source file.
+ * <p> The content is only hashed when the size or the last modified time changes.
+ */
+public class StateOperation {
+
+    public static final String STATE_FILE = "state.bin";
+    private static final int MAGIC = 0x4A425354;
+    private static final int VERSION = 1;
+    private static final String HASH_ALGORITHM = "SHA-256";
+    private static final int HASH_LENGTH = 32;
+
+    private Path stateFile;
+    private Map<String, FileStateModel> states;
+    // hashes computed during this execution
+    private Map<String, FileStateModel> computed;
+
+    /**
+     * Create the build state of the given class path.
+     * @param classPath - the path where the class files and the build state are.
+     */
+    public StateOperation(String classPath) {
+        this(classPath, STATE_FILE);
+    }
+    /**
+     * Create a build state of the given class path stored in its own file.
+     * @param classPath - the path where the build state is.
+     * @param fileName - the name of the state file.
+     */
+    public StateOperation(String classPath, String fileName) {
+        stateFile = Paths.get(classPath, GraphOperation.STATE_DIRECTORY, fileName);
+        states = new HashMap<>();
+        computed = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Find if there is a stored build state to use.
+     * @return true if the state file exists, false otherwise.
+     */
+    public boolean exists() {
+        return Files.exists(stateFile);
+    }
+    /**
+     * Load the stored build state.
+     * @return this instance.
+     */
+    public StateOperation load() {
+        states.clear();
+        if(!exists()) return this;
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(stateFile)))) {
+            if(input.readInt() != MAGIC || input.readInt() != VERSION) return this;
+            int count = input.readInt();
+            for(int i=0; i<count; ++i) {
+                String file = input.readUTF();
+                long size = input.readLong();
+                long modified = input.readLong();
+                byte[] hash = new byte[HASH_LENGTH];
+                input.readFully(hash);
+                states.put(file, new FileStateModel(size, modified, hash));
+            }
+        } catch(IOException e) {
+            System.console().printf("[Warning] The build state is corrupted, it will be created again%n => | %s |%n", stateFile);
+            states.clear();
+        }
+        return this;
+    }
+    /**
+     * Get the files whose content is different from the recorded one.
+     * <p> Files with the same size and last modified time are not read.
+     * <p> The remaining files are hashed in parallel.
+     * @param files - the source files to verify.
+     * @return the modified or new files.
+     */
+    public Set<String> getModifiedFiles(List<Path> files) {
+        Set<String> modified = ConcurrentHashMap.newKeySet();
+        files.parallelStream().forEach(p -> {
+            String file = p.normalize().toString();
+            FileStateModel recorded = states.get(file);
+            try {
+                BasicFileAttributes attributes = Files.readAttributes(p, BasicFileAttributes.class);
+                long size = attributes.size();
+                long lastModified = attributes.lastModifiedTime().toMillis();
+                if(recorded != null && recorded.hasSameAttributes(size, lastModified)) return;
+                FileStateModel current = new FileStateModel(size, lastModified, hash(p));
+                computed.put(file, current);
+                if(recorded == null || !recorded.hasSameHash(current.hash())) {
+                    modified.add(file);
+                }
+            } catch(IOException e) {
+                modified.add(file);
+            }
+        });
+        return modified;
+    }
+    /**
+     * Record the current state of the compiled files and store the build state.
+     * <p> The files that no longer exists are removed from the build state.
+     * @param files - the compiled source files.
+     */
+    public void save(Collection<String> files) {
+        Set<String> pending = new HashSet<>(files);
+        // files with only new attributes don't need to be hashed again.
+        for(Map.Entry<String, FileStateModel> e: computed.entrySet()) {
+            FileStateModel recorded = states.get(e.getKey());
+            if(pending.contains(e.getKey()) || (recorded != null && recorded.hasSameHash(e.getValue().hash()))) {
+                states.put(e.getKey(), e.getValue());
+                pending.remove(e.getKey());
+            }
+        }
+        pending.parallelStream().forEach(f -> {
+            try {
+                Path p = Paths.get(f);
+                BasicFileAttributes attributes = Files.readAttributes(p, BasicFileAttributes.class);
+                computed.put(f, new FileStateModel(attributes.size(), attributes.lastModifiedTime().toMillis(), hash(p)));
+            } catch(IOException e) {
+                e.printStackTrace();
+            }
+        });
+        for(String f: pending) {
+            if(computed.containsKey(f)) states.put(f, computed.get(f));
+        }
+        states.keySet().removeIf(f -> !Files.exists(Paths.get(f)));
+        try {
+            Files.createDirectories(stateFile.getParent());
+            try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(stateFile)))) {
+                output.writeInt(MAGIC);
+                output.writeInt(VERSION);
+                output.writeInt(states.size());
+                for(Map.Entry<String, FileStateModel> e: states.entrySet()) {
+                    output.writeUTF(e.getKey());
+                    output.writeLong(e.getValue().size());
+                    output.writeLong(e.getValue().modified());
+                    output.write(e.getValue().hash());
+                }
+            }
+        } catch(IOException e) {
+            e.printStackTrace();
+        }
+    }
+    /**
+     * Get the content hash of a file.
+     * @param file - the file to hash.
+     * @return the hash bytes.
+     */
+    public static byte[] hash(Path file) throws IOException {
+        try (InputStream input = Files.newInputStream(file)) {
+            MessageDigest digest = MessageDigest.getInstance(HASH_ALGORITHM);
+            byte[] buffer = new byte[8192];
+            int read;
+            while((read = input.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+            return digest.digest();
+        } catch(NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package application.operations;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BooleanSupplier;
+
+import application.utils.ProfileUtils;
+
+/**
+ * Execute build steps declared as a graph of tasks.
+ * <p> A task starts when all its dependencies succeed, tasks without pending dependencies run in parallel
+ * on a pool with a bounded number of threads.
+ * <p> When a task fails every task that depends on it, directly or not, is skipped.
+ */
+public class TaskOperation {
+
+    public static final String SUCCESS = "success";
+    public static final String FAILED = "failed";
+    public static final String SKIPPED = "skipped";
+
+    private int jobs;
+    private Map<String, BooleanSupplier> actions;
+    private Map<String, List<String>> dependencies;
+
+    /**
+     * Create an empty task graph.
+     * @param jobs - the max number of tasks to run at the same time.
+     */
+    public TaskOperation(int jobs) {
+        this.jobs = Math.max(1, jobs);
+        actions = new LinkedHashMap<>();
+        dependencies = new HashMap<>();
+    }
+
+    /**
+     * Declare a task.
+     * <p> The dependencies that are not declared when the graph is executed are ignored,
+     * so a step can depend on optional steps.
+     * @param name - the unique task name.
+     * @param action - the task work, it returns true when it succeed.
+     * @param after - the names of the tasks that must succeed before this one.
+     * @return this instance.
+     */
+    public TaskOperation addTask(String name, BooleanSupplier action, String... after) {
+        if(actions.containsKey(name)) {
+            System.console().printf("[Warning] The task %s is already declared%n", name);
+            return this;
+        }
+        actions.put(name, action);
+        dependencies.put(name, List.of(after));
+        return this;
+    }
+    /**
+     * Find if a task is declared.
+     * @param name - the task name.
+     * @return true if its declared, false otherwise.
+     */
+    public boolean hasTask(String name) {
+        return actions.containsKey(name);
+    }
+    /**
+     * Get the names of the declared tasks in order of declaration.
+     * @return the task names.
+     */
+    public List<String> getTaskNames() {
+        return new ArrayList<>(actions.keySet());
+    }
+    /**
+     * Execute every task and wait for them.
+     * <p> The tasks are started after their dependencies, in order of declaration otherwise.
+     * <p> When the dependencies form a cycle no task is executed and every task is skipped.
+     * @return the status of each task by its name.
+     */
+    public Map<String, String> execute() {
+        Map<String, String> status = new LinkedHashMap<>();
+        List<String> order = getOrder();
+        if(order == null) {
+            for(String name: actions.keySet()) {
+                status.put(name, SKIPPED);
+            }
+            return status;
+        }
+        Map<String, CompletableFuture<String>> futures = new LinkedHashMap<>();
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(jobs, Math.max(1, actions.size())));
+        try {
+            for(String name: order) {
+                List<CompletableFuture<String>> required = new ArrayList<>();
+                for(String d: dependencies.get(name)) {
+                    if(futures.containsKey(d)) required.add(futures.get(d));
+                }
+                BooleanSupplier action = actions.get(name);
+                CompletableFuture<String> task = CompletableFuture
+                    .allOf(required.toArray(new CompletableFuture<?>[0]))
+                    .thenApplyAsync(v -> run(name, action, required), pool);
+                futures.put(name, task);
+            }
+            for(String name: actions.keySet()) {
+                status.put(name, futures.get(name).join());
+            }
+            return status;
+        } finally {
+            pool.shutdown();
+        }
+    }
+    /**
+     * Execute every task and find if all of them succeed.
+     * @return true if every task succeed, false otherwise.
+     */
+    public boolean executeAll() {
+        return execute().values().stream().allMatch(SUCCESS::equals);
+    }
+    /**
+     * Sort the tasks so each one is after its declared dependencies, keeping the order of declaration otherwise.
+     * @return the task names in execution order, null if the dependencies form a cycle.
+     */
+    private List<String> getOrder() {
+        List<String> order = new ArrayList<>();
+        Map<String, Boolean> visited = new HashMap<>();
+        for(String name: actions.keySet()) {
+            List<String> cycle = visit(name, visited, order, new ArrayList<>());
+            if(cycle != null) {
+                System.console().printf("[Error] The tasks depend on each other%n => %s%n", String.join(" -> ", cycle));
+                return null;
+            }
+        }
+        return order;
+    }
+    /**
+     * Add the task to the order after its dependencies.
+     * @param visited - the tasks already visited, false while their dependencies are being visited.
+     * @param path - the tasks being visited, used to report a cycle.
+     * @return the tasks of the cycle found, null if there is none.
+     */
+    private List<String> visit(String name, Map<String, Boolean> visited, List<String> order, List<String> path) {
+        Boolean done = visited.get(name);
+        if(done != null) {
+            if(done) return null;
+            List<String> cycle = new ArrayList<>(path.subList(path.indexOf(name), path.size()));
+            cycle.add(name);
+            return cycle;
+        }
+        visited.put(name, false);
+        path.add(name);
+        for(String d: dependencies.get(name)) {
+            if(!actions.containsKey(d)) continue;
+            List<String> cycle = visit(d, visited, order, path);
+            if(cycle != null) return cycle;
+        }
+        path.remove(path.size() - 1);
+        visited.put(name, true);
+        order.add(name);
+        return null;
+    }
+    private String run(String name, BooleanSupplier action, List<CompletableFuture<String>> required) {
+        for(CompletableFuture<String> r: required) {
+            if(!SUCCESS.equals(r.join())) {
+                System.console().printf("[Warning] Task %s skipped because a previous task didn't succeed%n", name);
+                return SKIPPED;
+            }
+        }
+        try {
+            if(ProfileUtils.measure("task " + name, () -> action.getAsBoolean())) return SUCCESS;
+            System.console().printf("[Error] Task %s failed%n", name);
+        } catch(RuntimeException e) {
+            System.console().printf("[Error] Task %s failed%n", name);
+            e.printStackTrace();
+        }
+        return FAILED;
+    }
+}
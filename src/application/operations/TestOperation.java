@@ -0,0 +1,289 @@
+package application.operations;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import application.models.ProcessResultModel;
+import application.models.TestResultModel;
+import application.utils.ClassFileUtils;
+
+/**
+ * Discover and run the test classes of the compiled test tree.
+ * <p> A test class is a top level class with a main method, it passes when its main method exit without errors.
+ * <p> Each test class runs in its own forked JVM, up to the number of jobs at the same time.
+ * <p> The result of each test is stored, so the next execution starts with the tests that failed
+ * and then with the slowest ones, which finishes sooner when the tests are shared between the jobs.
+ * <p> The class files present when the tests ran are recorded, so only the tests affected by the classes
+ * modified after that can be selected.
+ */
+public class TestOperation {
+
+    public static final String HISTORY_FILE = "tests.bin";
+    public static final String TESTED_FILE = "tested.bin";
+    private static final int MAGIC = 0x4A425448;
+    private static final int VERSION = 1;
+
+    private String testClassPath;
+    private String runClassPath;
+    private int jobs;
+    private ProcessOperation processOperation;
+    private ClassFileUtils classFileUtils;
+    private Path historyFile;
+    private Map<String, TestResultModel> history;
+    private StateOperation tested;
+    private Set<String> modified;
+    // the internal class name of each class file of both class paths.
+    private Map<String, String> classFiles;
+
+    /**
+     * Create the test runner of a compiled test tree.
+     * @param testClassPath - the path where the test class files are.
+     * @param runClassPath - the class path entries separated by ; used to run the tests.
+     * @param processOperation - the process operation used to fork the JVMs.
+     * @param jobs - the max number of tests to run at the same time.
+     */
+    public TestOperation(String testClassPath, String runClassPath, ProcessOperation processOperation, int jobs) {
+        this.testClassPath = testClassPath;
+        this.runClassPath = runClassPath;
+        this.processOperation = processOperation;
+        this.jobs = Math.max(1, jobs);
+        classFileUtils = new ClassFileUtils();
+        historyFile = Paths.get(testClassPath, GraphOperation.STATE_DIRECTORY, HISTORY_FILE);
+        history = new HashMap<>();
+        tested = new StateOperation(testClassPath, TESTED_FILE);
+        modified = new HashSet<>();
+        classFiles = new HashMap<>();
+    }
+
+    /**
+     * Get the test classes of the test class path.
+     * <p> The launcher is only used when its the only class with a main method,
+     * otherwise it would run the other tests again.
+     * @param launcher - the Test-Class of the configuration.
+     * @return the test class package names.
+     */
+    public List<String> getTestClasses(String launcher) {
+        List<String> tests = new ArrayList<>();
+        Path classDirectory = Paths.get(testClassPath);
+        if(!Files.exists(classDirectory)) return tests;
+        try (Stream<Path> s = Files.walk(classDirectory)) {
+            s
+                .filter(p -> p.getFileName().toString().endsWith(".class") && !p.getFileName().toString().contains("$"))
+                .filter(p -> !classDirectory.relativize(p).startsWith(GraphOperation.STATE_DIRECTORY))
+                .sorted()
+                .filter(classFileUtils::hasMainMethod)
+                .forEach(p -> tests.add(classDirectory.relativize(p).toString()
+                            .replace(".class", "")
+                            .replace(File.separator, ".")));
+        } catch(IOException e) {
+            e.printStackTrace();
+        }
+        if(tests.size() > 1 && launcher != null) tests.remove(launcher);
+        return tests;
+    }
+    /**
+     * Load the results of the previous execution and find the class files modified since then.
+     * @param classPath - the path where the project class files are.
+     * @return this instance.
+     */
+    public TestOperation load(String classPath) {
+        classFiles = getClassFiles(classPath);
+        classFiles.putAll(getClassFiles(testClassPath));
+        modified = tested.load().getModifiedFiles(classFiles.keySet().stream().map(Paths::get).toList());
+        history.clear();
+        if(!Files.exists(historyFile)) return this;
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(historyFile)))) {
+            if(input.readInt() != MAGIC || input.readInt() != VERSION) return this;
+            int count = input.readInt();
+            for(int i=0; i<count; ++i) {
+                TestResultModel result = new TestResultModel(input.readUTF(), input.readBoolean(), input.readLong());
+                history.put(result.name(), result);
+            }
+        } catch(IOException e) {
+            System.console().printf("[Warning] The test history is corrupted, it will be created again%n => | %s |%n", historyFile);
+            history.clear();
+        }
+        return this;
+    }
+    /**
+     * Get the tests that depend directly or transitively on the classes modified since the tests ran,
+     * and the tests that failed in the previous execution.
+     * <p> The dependencies are taken from the dependency graphs of the class path and the test class path.
+     * <p> When the tests never ran every test is affected.
+     * @param tests - the test class package names.
+     * @param classPath - the path where the project class files are.
+     * @param root - the root path of the source files.
+     * @return the affected tests.
+     */
+    public List<String> getAffectedTests(List<String> tests, String classPath, String root) {
+        if(!tested.exists()) {
+            System.console().printf("[Info] %s%n", "The tests never ran, every test is affected.");
+            return tests;
+        }
+        Set<String> changed = new HashSet<>();
+        for(String f: modified) {
+            changed.add(classFiles.get(f));
+        }
+        Map<String, Set<String>> dependents = new HashMap<>();
+        for(String p: List.of(classPath, testClassPath)) {
+            GraphOperation graph = new GraphOperation(p, root);
+            if(!graph.exists()) continue;
+            for(Map.Entry<String, Set<String>> e: graph.load().getClassDependencies().entrySet()) {
+                for(String d: e.getValue()) {
+                    dependents.computeIfAbsent(d, k -> new HashSet<>()).add(e.getKey());
+                }
+            }
+        }
+        Set<String> affected = new HashSet<>(changed);
+        Deque<String> pending = new ArrayDeque<>(changed);
+        while(!pending.isEmpty()) {
+            for(String d: dependents.getOrDefault(pending.pop(), Set.of())) {
+                if(affected.add(d)) pending.push(d);
+            }
+        }
+        List<String> selected = tests
+            .stream()
+            .filter(t -> affected.contains(t.replace(".", "/")) || (history.containsKey(t) && history.get(t).failed()))
+            .toList();
+        System.console().printf("[Info] %s of %s tests are affected by %s modified classes%n",
+                selected.size(), tests.size(), changed.size());
+        return selected;
+    }
+    /**
+     * Sort the tests by the results of the previous execution.
+     * <p> The failed tests are first, then the new ones and then the rest from the slowest to the fastest.
+     * @param tests - the test class package names.
+     * @return the sorted tests.
+     */
+    public List<String> sortByHistory(List<String> tests) {
+        Comparator<String> failedFirst = Comparator.comparing(t -> !(history.containsKey(t) && history.get(t).failed()));
+        Comparator<String> newFirst = Comparator.comparing(history::containsKey);
+        Comparator<String> slowFirst = Comparator.comparingLong(t -> history.containsKey(t) ? -history.get(t).elapsed() : 0);
+        List<String> sorted = new ArrayList<>(tests);
+        sorted.sort(failedFirst.thenComparing(newFirst).thenComparing(slowFirst));
+        return sorted;
+    }
+    /**
+     * Run the tests, each one in a forked JVM, and store their results.
+     * <p> The tests are taken in order by the next free job, so the first ones start first.
+     * @param tests - the test class package names.
+     * @return true if every test passed, false otherwise.
+     */
+    public boolean run(List<String> tests) {
+        if(tests.isEmpty()) {
+            System.console().printf("[Info] %s%n", "No tests to run.");
+            return true;
+        }
+        long start = System.nanoTime();
+        String classPath = getRunClassPath();
+        List<Callable<TestResultModel>> tasks = new ArrayList<>();
+        for(String t: tests) {
+            tasks.add(() -> runTest(t, classPath));
+        }
+        List<TestResultModel> results = new ArrayList<>();
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(jobs, tests.size()));
+        try {
+            for(Future<TestResultModel> f: pool.invokeAll(tasks)) {
+                results.add(f.get());
+            }
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch(ExecutionException e) {
+            e.printStackTrace();
+            return false;
+        } finally {
+            pool.shutdown();
+        }
+        long failed = results.stream().filter(TestResultModel::failed).count();
+        for(TestResultModel r: results) {
+            history.put(r.name(), r);
+        }
+        save();
+        tested.save(modified);
+        System.console().printf("[Info] %s tests, %s failed in %s ms using %s jobs%n",
+                results.size(), failed, (System.nanoTime() - start) / 1_000_000, Math.min(jobs, tests.size()));
+        return failed == 0;
+    }
+    private TestResultModel runTest(String test, String classPath) {
+        ProcessResultModel result = processOperation.execute(String.format("java -cp '%s' %s", classPath, test), false);
+        if(result.isSuccess()) {
+            System.console().printf("[Info] %s passed in %s ms%n", test, result.elapsedMillis());
+        } else {
+            System.console().printf("[Error] %s failed with code %s in %s ms%n%s%s", test, result.exitCode(),
+                    result.elapsedMillis(), result.output(), result.error());
+        }
+        return new TestResultModel(test, !result.isSuccess(), result.elapsedMillis());
+    }
+    /**
+     * Get the class files of the class path, without the build state.
+     * @param classPath - the path where the class files are.
+     * @return the internal class name of each class file by its path.
+     */
+    private Map<String, String> getClassFiles(String classPath) {
+        Map<String, String> classFiles = new HashMap<>();
+        Path classDirectory = Paths.get(classPath);
+        if(!Files.exists(classDirectory)) return classFiles;
+        try (Stream<Path> s = Files.walk(classDirectory)) {
+            s
+                .filter(p -> p.getFileName().toString().endsWith(".class"))
+                .filter(p -> !classDirectory.relativize(p).startsWith(GraphOperation.STATE_DIRECTORY))
+                .forEach(p -> classFiles.put(p.normalize().toString(), classDirectory.relativize(p).toString()
+                            .replace(File.separator, "/")
+                            .replace(".class", "")));
+        } catch(IOException e) {
+            e.printStackTrace();
+        }
+        return classFiles;
+    }
+    private String getRunClassPath() {
+        List<String> entries = new ArrayList<>();
+        for(String a: runClassPath.split(";")) {
+            if(!a.isBlank()) entries.add(a);
+        }
+        return String.join(File.pathSeparator, entries);
+    }
+    private void save() {
+        // the tests that no longer exists are removed from the history.
+        history.keySet().removeIf(t -> !Files.exists(Paths.get(testClassPath, t.replace(".", File.separator) + ".class")));
+        try {
+            Files.createDirectories(historyFile.getParent());
+            try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(historyFile)))) {
+                output.writeInt(MAGIC);
+                output.writeInt(VERSION);
+                output.writeInt(history.size());
+                for(TestResultModel r: history.values()) {
+                    output.writeUTF(r.name());
+                    output.writeBoolean(r.failed());
+                    output.writeLong(r.elapsed());
+                }
+            }
+        } catch(IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
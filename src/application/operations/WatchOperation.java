@@ -0,0 +1,115 @@
+package application.operations;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+import java.io.IOException;
+
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Watch the source path for .java file changes.
+ * <p> The events are debounced so a burst of saves produces only one notification.
+ * <p> The removed .java files and directories are notified too, even though they no longer exist.
+ */
+public class WatchOperation {
+
+    public static final long DEFAULT_DEBOUNCE_MILLIS = 300;
+    private static final String FILE_EXTENSION = ".java";
+
+    private long debounceMillis;
+    private Map<WatchKey, Path> keys;
+
+    public WatchOperation() {
+        this(DEFAULT_DEBOUNCE_MILLIS);
+    }
+    /**
+     * Create an instance of this class with a given debounce time.
+     * @param debounceMillis - the milliseconds without events to wait before notifying the changes.
+     */
+    public WatchOperation(long debounceMillis) {
+        this.debounceMillis = debounceMillis;
+        keys = new HashMap<>();
+    }
+
+    /**
+     * Watch the path and its sub directories until the thread is interrupted.
+     * <p> New directories are registered when they are created.
+     * @param pathURI - the source path to watch.
+     * @param handler - the consumer of the changed .java files.
+     */
+    public void watch(String pathURI, Consumer<Set<Path>> handler) {
+        try (WatchService service = FileSystems.getDefault().newWatchService()) {
+            register(service, Paths.get(pathURI));
+            System.console().printf("[Info] Watching %s for changes%n", pathURI);
+            while(!Thread.currentThread().isInterrupted()) {
+                Set<Path> changed = new HashSet<>();
+                WatchKey key = service.take();
+                // keep collecting events until the path is quiet.
+                while(key != null) {
+                    handleEvents(service, key, changed);
+                    key = service.poll(debounceMillis, TimeUnit.MILLISECONDS);
+                }
+                if(!changed.isEmpty()) handler.accept(changed);
+            }
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch(IOException e) {
+            e.printStackTrace();
+        }
+    }
+    private void handleEvents(WatchService service, WatchKey key, Set<Path> changed) throws IOException {
+        Path dir = keys.get(key);
+        for(WatchEvent<?> event: key.pollEvents()) {
+            if(event.kind() == OVERFLOW) {
+                // events were lost, so every file of the directory is taken as changed.
+                appendFiles(dir, changed);
+                continue;
+            }
+            Path file = dir.resolve((Path) event.context()).normalize();
+            if(event.kind() == ENTRY_DELETE) {
+                // a removed directory is notified so the classes of its files are removed too.
+                if(file.getFileName().toString().endsWith(FILE_EXTENSION) || keys.containsValue(file)) changed.add(file);
+            } else if(Files.isDirectory(file)) {
+                if(event.kind() == ENTRY_CREATE) {
+                    register(service, file);
+                    appendFiles(file, changed);
+                }
+            } else if(file.getFileName().toString().endsWith(FILE_EXTENSION) && Files.exists(file)) {
+                changed.add(file);
+            }
+        }
+        if(!key.reset()) keys.remove(key);
+    }
+    private void register(WatchService service, Path start) throws IOException {
+        try (Stream<Path> s = Files.walk(start)) {
+            for(Path dir: s.filter(Files::isDirectory).toList()) {
+                keys.put(dir.register(service, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE), dir.normalize());
+            }
+        }
+    }
+    private void appendFiles(Path dir, Set<Path> changed) throws IOException {
+        if(dir == null || !Files.exists(dir)) return;
+        try (Stream<Path> s = Files.walk(dir)) {
+            s
+                .filter(p -> p.getFileName().toString().endsWith(FILE_EXTENSION))
+                .forEach(p -> changed.add(p.normalize()));
+        }
+    }
+}
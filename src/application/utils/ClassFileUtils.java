@@ -0,0 +1,420 @@
+package application.utils;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import application.models.ClassModel;
+
+public class ClassFileUtils {
+
+    private static final int MAGIC = 0xCAFEBABE;
+    private static final int ACC_PUBLIC = 0x0001;
+    private static final int ACC_PRIVATE = 0x0002;
+    private static final int ACC_STATIC = 0x0008;
+    private static final String MAIN_NAME = "main";
+    private static final String MAIN_DESCRIPTOR = "([Ljava/lang/String;)V";
+    // public, private, protected, static, final, interface, abstract, annotation, enum.
+    private static final int ABI_ACCESS_MASK = 0x661F;
+    // a class in a descriptor or signature, like the annotation types or the generic arguments.
+    private static final Pattern DESCRIPTOR_CLASS = Pattern.compile("L([\\w/$]+)[;<]");
+
+    private static final int CONSTANT_UTF8 = 1;
+    private static final int CONSTANT_INTEGER = 3;
+    private static final int CONSTANT_FLOAT = 4;
+    private static final int CONSTANT_LONG = 5;
+    private static final int CONSTANT_DOUBLE = 6;
+    private static final int CONSTANT_CLASS = 7;
+    private static final int CONSTANT_STRING = 8;
+    private static final int CONSTANT_FIELD_REF = 9;
+    private static final int CONSTANT_METHOD_REF = 10;
+    private static final int CONSTANT_INTERFACE_METHOD_REF = 11;
+    private static final int CONSTANT_NAME_AND_TYPE = 12;
+    private static final int CONSTANT_METHOD_HANDLE = 15;
+    private static final int CONSTANT_METHOD_TYPE = 16;
+    private static final int CONSTANT_DYNAMIC = 17;
+    private static final int CONSTANT_INVOKE_DYNAMIC = 18;
+    private static final int CONSTANT_MODULE = 19;
+    private static final int CONSTANT_PACKAGE = 20;
+
+    /**
+     * Read the class file information.
+     * <p> The dependencies are the classes referenced by the constant pool and by the member descriptors.
+     * @param classFile - the .class file to read.
+     * @return the class information or null if the file is not a valid class file.
+     */
+    public ClassModel readClass(Path classFile) {
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(classFile)))) {
+            if(input.readInt() != MAGIC) return null;
+            // minor and major version
+            input.readUnsignedShort();
+            input.readUnsignedShort();
+
+            int count = input.readUnsignedShort();
+            String[] utf8 = new String[count];
+            int[] classIndex = new int[count];
+            String[] constants = new String[count];
+            List<Integer> descriptors = new ArrayList<>();
+            for(int i=1; i<count; ++i) {
+                int tag = input.readUnsignedByte();
+                switch(tag) {
+                    case CONSTANT_UTF8 -> utf8[i] = input.readUTF();
+                    case CONSTANT_CLASS -> classIndex[i] = input.readUnsignedShort();
+                    case CONSTANT_STRING -> constants[i] = "#" + input.readUnsignedShort();
+                    case CONSTANT_MODULE, CONSTANT_PACKAGE -> input.readUnsignedShort();
+                    case CONSTANT_METHOD_TYPE -> descriptors.add(input.readUnsignedShort());
+                    case CONSTANT_NAME_AND_TYPE -> {
+                        input.readUnsignedShort();
+                        descriptors.add(input.readUnsignedShort());
+                    }
+                    case CONSTANT_INTEGER, CONSTANT_FLOAT -> constants[i] = String.valueOf(input.readInt());
+                    case CONSTANT_FIELD_REF, CONSTANT_METHOD_REF, CONSTANT_INTERFACE_METHOD_REF,
+                         CONSTANT_DYNAMIC, CONSTANT_INVOKE_DYNAMIC -> input.readInt();
+                    case CONSTANT_LONG, CONSTANT_DOUBLE -> {
+                        constants[i] = String.valueOf(input.readLong());
+                        ++i;
+                    }
+                    case CONSTANT_METHOD_HANDLE -> {
+                        input.readUnsignedByte();
+                        input.readUnsignedShort();
+                    }
+                    default -> {
+                        return null;
+                    }
+                }
+            }
+
+            int access = input.readUnsignedShort();
+            String name = utf8[classIndex[input.readUnsignedShort()]];
+            int superIndex = input.readUnsignedShort();
+            String superName = superIndex == 0 ? "" : utf8[classIndex[superIndex]];
+            List<String> interfaces = new ArrayList<>();
+            int interfacesCount = input.readUnsignedShort();
+            for(int i=0; i<interfacesCount; ++i) {
+                interfaces.add(utf8[classIndex[input.readUnsignedShort()]]);
+            }
+
+            Set<String> dependencies = new HashSet<>();
+            for(int i=1; i<count; ++i) {
+                if(classIndex[i] != 0) appendClassName(dependencies, utf8[classIndex[i]]);
+            }
+            for(int d: descriptors) {
+                appendDescriptor(dependencies, utf8[d]);
+            }
+
+            // the abi is the visible declaration of the class, its members and constants.
+            List<String> abi = new ArrayList<>();
+            List<String> constantValues = new ArrayList<>();
+            abi.add(String.format("class %s %s %s %s", access & ABI_ACCESS_MASK, name, superName, interfaces));
+            for(int m=0; m<2; ++m) {
+                String kind = m == 0 ? "field" : "method";
+                int membersCount = input.readUnsignedShort();
+                for(int i=0; i<membersCount; ++i) {
+                    int memberAccess = input.readUnsignedShort();
+                    String memberName = utf8[input.readUnsignedShort()];
+                    String descriptor = utf8[input.readUnsignedShort()];
+                    appendDescriptor(dependencies, descriptor);
+                    StringBuilder member = new StringBuilder(String.format(
+                                "%s %s %s %s", kind, memberAccess & ABI_ACCESS_MASK, memberName, descriptor));
+                    int attributesCount = input.readUnsignedShort();
+                    for(int j=0; j<attributesCount; ++j) {
+                        String attribute = utf8[input.readUnsignedShort()];
+                        long length = input.readInt() & 0xFFFFFFFFL;
+                        switch(attribute) {
+                            case "ConstantValue" -> {
+                                String value = constants[input.readUnsignedShort()];
+                                if(value != null && value.startsWith("#")) value = utf8[Integer.parseInt(value.substring(1))];
+                                member.append(" = ").append(value);
+                                // private constants can't be inlined by other classes.
+                                if((memberAccess & ACC_PRIVATE) == 0) {
+                                    constantValues.add(String.format("%s %s", memberName, value));
+                                }
+                            }
+                            case "Signature" -> member.append(" ").append(utf8[input.readUnsignedShort()]);
+                            case "Exceptions" -> {
+                                int exceptions = input.readUnsignedShort();
+                                member.append(" throws");
+                                for(int k=0; k<exceptions; ++k) {
+                                    member.append(" ").append(utf8[classIndex[input.readUnsignedShort()]]);
+                                }
+                            }
+                            default -> input.skipNBytes(length);
+                        }
+                    }
+                    if((memberAccess & ACC_PRIVATE) == 0) abi.add(member.toString());
+                }
+            }
+
+            String sourceFile = "";
+            int attributesCount = input.readUnsignedShort();
+            for(int i=0; i<attributesCount; ++i) {
+                String attribute = utf8[input.readUnsignedShort()];
+                long length = input.readInt() & 0xFFFFFFFFL;
+                switch(attribute) {
+                    case "SourceFile" -> sourceFile = utf8[input.readUnsignedShort()];
+                    case "Signature" -> abi.add("signature " + utf8[input.readUnsignedShort()]);
+                    default -> input.skipNBytes(length);
+                }
+            }
+            dependencies.remove(name);
+            return new ClassModel(
+                    name, superName, interfaces, sourceFile, dependencies,
+                    getFingerprint(abi), getFingerprint(constantValues)
+            );
+        } catch(IOException | RuntimeException e) {
+            System.console().printf("[Error] Couldn't read class file %n => | %s |%n", classFile);
+        }
+        return null;
+    }
+    /**
+     * Get every class referenced by the constant pool of a class file.
+     * <p> Besides the class constants, the descriptors and signatures of the constant pool strings are read,
+     * which includes the annotation types that are not referenced by any class constant.
+     * @param content - the content of the class file.
+     * @return the internal names of the referenced classes or empty if its not a valid class file.
+     */
+    public Set<String> getReferences(byte[] content) {
+        Set<String> references = new HashSet<>();
+        try (DataInputStream input = new DataInputStream(new ByteArrayInputStream(content))) {
+            if(input.readInt() != MAGIC) return references;
+            // minor and major version
+            input.readUnsignedShort();
+            input.readUnsignedShort();
+
+            int count = input.readUnsignedShort();
+            String[] utf8 = new String[count];
+            int[] classIndex = new int[count];
+            for(int i=1; i<count; ++i) {
+                int tag = input.readUnsignedByte();
+                switch(tag) {
+                    case CONSTANT_UTF8 -> utf8[i] = input.readUTF();
+                    case CONSTANT_CLASS -> classIndex[i] = input.readUnsignedShort();
+                    case CONSTANT_STRING, CONSTANT_MODULE, CONSTANT_PACKAGE, CONSTANT_METHOD_TYPE -> input.readUnsignedShort();
+                    case CONSTANT_INTEGER, CONSTANT_FLOAT, CONSTANT_NAME_AND_TYPE, CONSTANT_FIELD_REF,
+                         CONSTANT_METHOD_REF, CONSTANT_INTERFACE_METHOD_REF, CONSTANT_DYNAMIC,
+                         CONSTANT_INVOKE_DYNAMIC -> input.readInt();
+                    case CONSTANT_LONG, CONSTANT_DOUBLE -> {
+                        input.readLong();
+                        ++i;
+                    }
+                    case CONSTANT_METHOD_HANDLE -> {
+                        input.readUnsignedByte();
+                        input.readUnsignedShort();
+                    }
+                    default -> {
+                        return references;
+                    }
+                }
+            }
+            for(int i=1; i<count; ++i) {
+                if(classIndex[i] != 0) appendClassName(references, utf8[classIndex[i]]);
+                if(utf8[i] == null || utf8[i].indexOf(';') == -1) continue;
+                Matcher matcher = DESCRIPTOR_CLASS.matcher(utf8[i]);
+                while(matcher.find()) {
+                    references.add(matcher.group(1));
+                }
+            }
+        } catch(IOException | RuntimeException e) {
+            references.clear();
+        }
+        return references;
+    }
+    /**
+     * Find if the class file declares the {@code public static void main(String[])} method.
+     * <p> Only the constant pool strings and the member tables are read, the reading stops at the main method.
+     * @param classFile - the .class file to read.
+     * @return true if the class has the main method, false otherwise or if its not a valid class file.
+     */
+    public boolean hasMainMethod(Path classFile) {
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(classFile)))) {
+            if(input.readInt() != MAGIC) return false;
+            // minor and major version
+            input.readUnsignedShort();
+            input.readUnsignedShort();
+
+            int count = input.readUnsignedShort();
+            String[] utf8 = new String[count];
+            for(int i=1; i<count; ++i) {
+                int tag = input.readUnsignedByte();
+                switch(tag) {
+                    case CONSTANT_UTF8 -> utf8[i] = input.readUTF();
+                    case CONSTANT_CLASS, CONSTANT_STRING, CONSTANT_MODULE, CONSTANT_PACKAGE,
+                         CONSTANT_METHOD_TYPE -> input.readUnsignedShort();
+                    case CONSTANT_INTEGER, CONSTANT_FLOAT, CONSTANT_NAME_AND_TYPE, CONSTANT_FIELD_REF,
+                         CONSTANT_METHOD_REF, CONSTANT_INTERFACE_METHOD_REF, CONSTANT_DYNAMIC,
+                         CONSTANT_INVOKE_DYNAMIC -> input.readInt();
+                    case CONSTANT_LONG, CONSTANT_DOUBLE -> {
+                        input.readLong();
+                        ++i;
+                    }
+                    case CONSTANT_METHOD_HANDLE -> {
+                        input.readUnsignedByte();
+                        input.readUnsignedShort();
+                    }
+                    default -> {
+                        return false;
+                    }
+                }
+            }
+            // access, this class and super class
+            input.skipNBytes(6);
+            input.skipNBytes(2L * input.readUnsignedShort());
+
+            int fieldsCount = input.readUnsignedShort();
+            for(int i=0; i<fieldsCount; ++i) {
+                input.skipNBytes(6);
+                skipAttributes(input);
+            }
+            int methodsCount = input.readUnsignedShort();
+            for(int i=0; i<methodsCount; ++i) {
+                int access = input.readUnsignedShort();
+                String name = utf8[input.readUnsignedShort()];
+                String descriptor = utf8[input.readUnsignedShort()];
+                if((access & (ACC_PUBLIC | ACC_STATIC)) == (ACC_PUBLIC | ACC_STATIC)
+                        && MAIN_NAME.equals(name) && MAIN_DESCRIPTOR.equals(descriptor)) {
+                    return true;
+                }
+                skipAttributes(input);
+            }
+        } catch(IOException | RuntimeException e) {
+            System.console().printf("[Error] Couldn't read class file %n => | %s |%n", classFile);
+        }
+        return false;
+    }
+    /**
+     * Get the fingerprint of the class structure: its hierarchy and every field and method declaration,
+     * including the private ones.
+     * <p> Two class files with the same shape only differ in their method bodies or constants,
+     * which is the change that the JVM allows to redefine in a running program.
+     * @param classFile - the .class file to read.
+     * @return the hexadecimal hash of the structure or null if its not a valid class file.
+     */
+    public String getShape(Path classFile) {
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(classFile)))) {
+            if(input.readInt() != MAGIC) return null;
+            // minor and major version
+            input.readUnsignedShort();
+            input.readUnsignedShort();
+
+            int count = input.readUnsignedShort();
+            String[] utf8 = new String[count];
+            int[] classIndex = new int[count];
+            for(int i=1; i<count; ++i) {
+                int tag = input.readUnsignedByte();
+                switch(tag) {
+                    case CONSTANT_UTF8 -> utf8[i] = input.readUTF();
+                    case CONSTANT_CLASS -> classIndex[i] = input.readUnsignedShort();
+                    case CONSTANT_STRING, CONSTANT_MODULE, CONSTANT_PACKAGE, CONSTANT_METHOD_TYPE -> input.readUnsignedShort();
+                    case CONSTANT_INTEGER, CONSTANT_FLOAT, CONSTANT_NAME_AND_TYPE, CONSTANT_FIELD_REF,
+                         CONSTANT_METHOD_REF, CONSTANT_INTERFACE_METHOD_REF, CONSTANT_DYNAMIC,
+                         CONSTANT_INVOKE_DYNAMIC -> input.readInt();
+                    case CONSTANT_LONG, CONSTANT_DOUBLE -> {
+                        input.readLong();
+                        ++i;
+                    }
+                    case CONSTANT_METHOD_HANDLE -> {
+                        input.readUnsignedByte();
+                        input.readUnsignedShort();
+                    }
+                    default -> {
+                        return null;
+                    }
+                }
+            }
+            List<String> shape = new ArrayList<>();
+            int access = input.readUnsignedShort();
+            String name = utf8[classIndex[input.readUnsignedShort()]];
+            int superIndex = input.readUnsignedShort();
+            String superName = superIndex == 0 ? "" : utf8[classIndex[superIndex]];
+            List<String> interfaces = new ArrayList<>();
+            int interfacesCount = input.readUnsignedShort();
+            for(int i=0; i<interfacesCount; ++i) {
+                interfaces.add(utf8[classIndex[input.readUnsignedShort()]]);
+            }
+            shape.add(String.format("class %s %s %s %s", access, name, superName, interfaces));
+            for(int m=0; m<2; ++m) {
+                String kind = m == 0 ? "field" : "method";
+                int membersCount = input.readUnsignedShort();
+                for(int i=0; i<membersCount; ++i) {
+                    int memberAccess = input.readUnsignedShort();
+                    String memberName = utf8[input.readUnsignedShort()];
+                    String descriptor = utf8[input.readUnsignedShort()];
+                    shape.add(String.format("%s %s %s %s", kind, memberAccess, memberName, descriptor));
+                    skipAttributes(input);
+                }
+            }
+            return getFingerprint(shape);
+        } catch(IOException | RuntimeException e) {
+            System.console().printf("[Error] Couldn't read class file %n => | %s |%n", classFile);
+        }
+        return null;
+    }
+    private void skipAttributes(DataInputStream input) throws IOException {
+        int attributesCount = input.readUnsignedShort();
+        for(int i=0; i<attributesCount; ++i) {
+            input.readUnsignedShort();
+            input.skipNBytes(input.readInt() & 0xFFFFFFFFL);
+        }
+    }
+    /**
+     * Get the hash of the given declarations without taking into account its order.
+     * @param declarations - the declarations to hash.
+     * @return the hexadecimal hash.
+     */
+    private String getFingerprint(List<String> declarations) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            declarations
+                .stream()
+                .sorted()
+                .forEach(d -> digest.update(String.format("%s%n", d).getBytes(StandardCharsets.UTF_8)));
+            return HexFormat.of().formatHex(digest.digest(), 0, 16);
+        } catch(NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    /**
+     * Append the class name without the array dimensions.
+     * @param dependencies - the set where the class name is appended.
+     * @param name - the internal class name or array descriptor.
+     */
+    private void appendClassName(Set<String> dependencies, String name) {
+        if(name == null) return;
+        if(name.startsWith("[")) {
+            appendDescriptor(dependencies, name);
+        } else {
+            dependencies.add(name);
+        }
+    }
+    /**
+     * Append every class name present in a field or method descriptor.
+     * @param dependencies - the set where the class names are appended.
+     * @param descriptor - the descriptor like (Ljava/lang/String;)V.
+     */
+    private void appendDescriptor(Set<String> dependencies, String descriptor) {
+        if(descriptor == null) return;
+        int start = descriptor.indexOf('L');
+        while(start != -1) {
+            int end = descriptor.indexOf(';', start);
+            if(end == -1) return;
+            dependencies.add(descriptor.substring(start + 1, end));
+            start = descriptor.indexOf('L', end);
+        }
+    }
+}
@@ -30,6 +30,17 @@ public class CommandUtils {
         help.append(String.format("\t => This [%s -f Xlint:all] will be replace by the default value -Werror.%n", prefix));
         help.append(String.format("%n\tIf you already compile the project: %n", ""));
         help.append(String.format("\t => This [%s] will only compile the modified files and the files that depend on it.%n", prefix));
+        help.append(String.format("%n\tThe project is compiled in-process with the system java compiler: %n", ""));
+        help.append(String.format("\t => Use [%s --engine shell] to compile using a javac child process instead.%n", prefix));
+        help.append(String.format("\tIndependent packages are compiled at the same time: %n", ""));
+        help.append(String.format("\t => Use [%s --jobs 4] to compile at most 4 partitions at the same time.%n", prefix));
+        help.append(String.format("\tThe class files of already compiled sources are restored from ~/.javabuild/cache: %n", ""));
+        help.append(String.format("\t => Use [%s --no-cache] to compile without the build cache.%n", prefix));
+        help.append(String.format("\t => Use [%s --cache-size 1024] to change the max size of the build cache in MB.%n", prefix));
+        help.append(String.format("\t => Use [--cache-stats] to show the entries, size and hit rate of the build cache.%n", ""));
+        help.append(String.format("\tEach build phase can be timed: %n", ""));
+        help.append(String.format("\t => Use [%s --profile] to show the wall time, cpu time, files and bytes of each phase.%n", prefix));
+        help.append(String.format("\t => Use [%s --profile trace.json] to also write a chrome trace event file.%n", prefix));
 
         console.printf(CONSOLE_FORMAT, help.toString());
         return true;
@@ -46,6 +57,12 @@ public class CommandUtils {
         help.append(String.format("\tOnly one main class is allowed so: %n", ""));
         help.append(String.format("\t => This [%s -e app other.App] will only get the first argument app.%n", prefix));
         help.append(String.format("\t => This [%s] will only run the project using the class path files.%n", prefix));
+        help.append(String.format("%n\tThe program can be kept running while you edit it: %n", ""));
+        help.append(String.format("\t => Use [%s --hot] to re-compile the saved files and swap the classes into the running program.%n", prefix));
+        help.append(String.format("\tOnly method body changes are swapped, other changes restart the program.%n", ""));
+        help.append(String.format("%n\tThe .jar file can start faster with a class data sharing archive: %n", ""));
+        help.append(String.format("\t => Use [%s --cds] to run the .jar file with its archive, the first run creates it.%n", prefix));
+        help.append(String.format("\tThe archive is created again when the .jar file content changes.%n", ""));
 
         console.printf(CONSOLE_FORMAT, help.toString());
         return true;
@@ -69,6 +86,16 @@ public class CommandUtils {
         help.append(String.format("\t => Use [%s --ex extract-path] to change the extraction path.%n", prefix));
         help.append(String.format("%n\tYou can pass a jar command flags: %n", ""));
         help.append(String.format("\t => Use [%s -f v] to append the v flag in the jar command.%n", prefix));
+        help.append(String.format("%n\tThe .jar file is written in-process with a fixed entry order and time: %n", ""));
+        help.append(String.format("\t => Use [%s --level 9] to change the compression level, 0 stores the entries without compression.%n", prefix));
+        help.append(String.format("\t => Use [%s --engine shell] to create the .jar file with the jar command instead.%n", prefix));
+        help.append(String.format("%n\tThe lib dependencies are merged without extracting them: %n", ""));
+        help.append(String.format("\t => Use [%s --duplicates first] to use the first entry when its present more than once.%n", prefix));
+        help.append(String.format("\t => Use [%s --duplicates error] to stop when an entry is present more than once.%n", prefix));
+        help.append(String.format("\t => Use [%s --duplicates merge] to concatenate the META-INF/services files.%n", prefix));
+        help.append(String.format("%n\tThe .jar file can start faster with a class data sharing archive: %n", ""));
+        help.append(String.format("\t => Use [%s --cds] to create the .jsa archive next to the .jar file with a training run.%n", prefix));
+        help.append(String.format("\t => Then use [java -XX:SharedArchiveFile=name.jsa -jar name.jar] or [--run --cds].%n", ""));
 
         console.printf(CONSOLE_FORMAT, help.toString());
         return true;
@@ -95,6 +122,76 @@ public class CommandUtils {
         help.append("\tIf you don't provide a path to store the dependencies, | lib | is use as default value.\n");
         help.append("\n\t The dependency to add to the project must be a .jar file, otherwise it will not work.\n");
         help.append("\t The path of destination or the path where the .jar files will be store must be a directory.\n");
+        help.append(String.format("%n\tUse [%s group:artifact:version] to add a dependency from a local Maven repository.%n", prefix));
+        help.append("\tIts transitive dependencies are added too, the nearest version wins when there is a conflict.\n");
+        help.append(String.format("\t => Use [%s group:artifact:version --repo repository-path] to change the repository.%n", prefix));
+        help.append("\tIf you don't provide a repository, | ~/.m2/repository | is use as default value.\n");
+        help.append("\tThe resolved dependencies are written to dependencies.lock, the locked ones are not resolved again.\n");
+        help.append(String.format("\t => Use [%s] without a dependency to copy the locked .jar files that are missing.%n", prefix));
+
+        console.printf(CONSOLE_FORMAT, help.toString());
+        return true;
+    }
+    public boolean showHelpOnWatch() {
+        if(!isHelpCommand()) return false;
+
+        StringBuilder help = new StringBuilder();
+
+        String prefix = "--watch";
+        help.append(String.format("Use [%s] to compile the modified files each time they are saved.%n", prefix));
+        help.append("\tOnly the saved files and the files that depend on them are compiled.\n");
+        help.append(String.format("\t => Use [%s --restart] to run the project again after each successful compilation.%n", prefix));
+        help.append("\tThe watch operation is not sent to the daemon.\n");
+
+        console.printf(CONSOLE_FORMAT, help.toString());
+        return true;
+    }
+    public boolean showHelpOnDaemon() {
+        if(!isHelpCommand()) return false;
+
+        StringBuilder help = new StringBuilder();
+
+        String prefix = "--daemon";
+        help.append(String.format("Use [%s] to start a build daemon that keeps the configuration and the compiler warm.%n", prefix));
+        help.append("\tWhile the daemon is running the other commands are sent to it.\n");
+        help.append("\t => Use [--no-daemon] to execute a command without the daemon.\n");
+        help.append(String.format("\t => Use [%s --stop] to stop the running daemon.%n", prefix));
+
+        console.printf(CONSOLE_FORMAT, help.toString());
+        return true;
+    }
+    public boolean showHelpOnTest() {
+        if(!isHelpCommand()) return false;
+
+        StringBuilder help = new StringBuilder();
+
+        String prefix = "--test";
+        help.append(String.format("Use [%s] to compile the Test-Path of the configuration and run its tests.%n", prefix));
+        help.append("\tThe tests are compiled against the Class-Path into the Class-Path with the -test suffix.\n");
+        help.append("\tEach class with a main method is a test, it passes when it exit without errors.\n");
+        help.append("\tThe Test-Class is only used when its the only class with a main method.\n");
+        help.append("\tEach test runs in its own JVM and the failed and slowest tests of the last execution run first.\n");
+        help.append(String.format("\t => Use [%s --jobs 4] to run at most 4 tests at the same time.%n", prefix));
+        help.append(String.format("\t => Use [%s --affected] to only run the tests that depend on the classes modified since the last run.%n", prefix));
+        help.append("\tThe tests that failed in the last run are always affected.\n");
+
+        console.printf(CONSOLE_FORMAT, help.toString());
+        return true;
+    }
+    public boolean showHelpOnImage() {
+        if(!isHelpCommand()) return false;
+
+        StringBuilder help = new StringBuilder();
+
+        String prefix = "--image";
+        help.append(String.format("Use [%s] to create a runtime image with only the JDK modules used by the project.%n", prefix));
+        help.append("\tThe modules are found with jdeps over the Class-Path and the lib dependencies.\n");
+        help.append("\tThe runtime is created with jlink without debug information and compressed.\n");
+        help.append("\tThe .jar file of the project is copied into the image with a launcher that uses the Main-Class.\n");
+        help.append("\tThe modules are cached, so only code changes don't run jdeps or jlink again.\n");
+        help.append(String.format("\t => Use [--jar %s] to create the .jar file before the image.%n", prefix));
+        help.append(String.format("\t => Use [%s --o image-path] to change the image directory.%n", prefix));
+        help.append(String.format("\t => Use [%s --l dependency-path] to change the dependency path.%n", prefix));
 
         console.printf(CONSOLE_FORMAT, help.toString());
         return true;
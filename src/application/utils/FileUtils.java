@@ -45,6 +45,7 @@ public class FileUtils {
         List<Path> content = new ArrayList<>();
         try (Stream<Path> s = Files.walk(Paths.get(pathURI), level, FileVisitOption.FOLLOW_LINKS)) {
             content.addAll(s.toList());
+            ProfileUtils.addFiles(content.size());
         } catch (IOException e) {
             e.printStackTrace();
         }
@@ -91,11 +92,33 @@ public class FileUtils {
                 // append line and *end of line*
                 lines.append(String.format("%s%n", line));
             }
+            ProfileUtils.addFiles(1);
+            ProfileUtils.addBytes(lines.length());
         } catch (IOException e) {
             e.printStackTrace();
         }
         return lines.toString();
     }
+    /**
+     * Find if any line of the file contains the given text.
+     * <p> The file is read line by line and the reading stops at the first match.
+     * @param fileURI - the file to search.
+     * @param text - the text to search.
+     * @return true if a line contains the text, false otherwise.
+     */
+    public boolean fileContainsLine(String fileURI, String text) {
+        try (BufferedReader br = new BufferedReader(new FileReader(new File(fileURI)))) {
+            ProfileUtils.addFiles(1);
+            String line;
+            while((line = br.readLine()) != null) {
+                ProfileUtils.addBytes(line.length());
+                if(line.contains(text)) return true;
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return false;
+    }
     /**
      * Write lines to a file.
      * <p> If the file doesn't exists it will be created.
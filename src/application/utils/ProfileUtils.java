@@ -0,0 +1,225 @@
+package application.utils;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.lang.management.ThreadMXBean;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import application.models.PhaseModel;
+
+/**
+ * Lightweight timing of the build phases.
+ * <p> The phases are measured only while the profile is enabled, otherwise starting a phase does nothing.
+ * <p> The files and bytes are added to the innermost phase running in the current thread.
+ */
+public final class ProfileUtils {
+
+    private static final String CONSOLE_FORMAT = "%s%n";
+    private static final Phase DISABLED = new Phase(null, 0);
+
+    private static volatile boolean enabled;
+    private static long origin;
+    private static ConcurrentLinkedQueue<PhaseModel> phases = new ConcurrentLinkedQueue<>();
+    private static ThreadLocal<Deque<Phase>> running = ThreadLocal.withInitial(ArrayDeque::new);
+    // a sequential id of each thread that measured a phase, since Thread.getId() is deprecated.
+    private static AtomicLong threadCount = new AtomicLong();
+    private static ThreadLocal<Long> threadId = ThreadLocal.withInitial(threadCount::incrementAndGet);
+
+    private ProfileUtils() {
+    }
+
+    /**
+     * Start measuring the phases, removing the measures of a previous profile.
+     */
+    public static void enable() {
+        phases.clear();
+        running.remove();
+        origin = System.nanoTime();
+        enabled = true;
+    }
+    /**
+     * Stop measuring the phases.
+     */
+    public static void disable() {
+        enabled = false;
+        running.remove();
+    }
+    /**
+     * Start a phase that ends when its closed.
+     * <p> Use it with try-with-resources: {@code try (Phase p = ProfileUtils.start("javac")) {...}}.
+     * @param name - the phase name.
+     * @return the running phase.
+     */
+    public static Phase start(String name) {
+        if(!enabled) return DISABLED;
+        Deque<Phase> stack = running.get();
+        Phase phase = new Phase(name, stack.size());
+        stack.push(phase);
+        return phase;
+    }
+    /**
+     * Measure a phase that returns a value.
+     * @param name - the phase name.
+     * @param task - the phase work.
+     * @return the value returned by the task.
+     */
+    public static <T> T measure(String name, Supplier<T> task) {
+        Phase phase = start(name);
+        try {
+            return task.get();
+        } finally {
+            phase.close();
+        }
+    }
+    /**
+     * Measure a phase.
+     * @param name - the phase name.
+     * @param task - the phase work.
+     */
+    public static void measure(String name, Runnable task) {
+        Phase phase = start(name);
+        try {
+            task.run();
+        } finally {
+            phase.close();
+        }
+    }
+    /**
+     * Add touched files to the innermost phase of the current thread.
+     * @param count - the number of files.
+     */
+    public static void addFiles(long count) {
+        if(!enabled) return;
+        Phase phase = running.get().peek();
+        if(phase != null) phase.files += count;
+    }
+    /**
+     * Add read bytes to the innermost phase of the current thread.
+     * @param count - the number of bytes.
+     */
+    public static void addBytes(long count) {
+        if(!enabled) return;
+        Phase phase = running.get().peek();
+        if(phase != null) phase.bytes += count;
+    }
+    /**
+     * Print the summary table of the measured phases.
+     * <p> The phases with the same name and depth are added in one row, in order of appearance.
+     */
+    public static void showReport() {
+        Map<String, long[]> rows = new LinkedHashMap<>();
+        List<PhaseModel> sorted = getPhases();
+        for(PhaseModel p: sorted) {
+            long[] row = rows.computeIfAbsent("  ".repeat(p.depth()) + p.name(), k -> new long[5]);
+            ++row[0];
+            row[1] += p.wall();
+            row[2] += p.cpu();
+            row[3] += p.files();
+            row[4] += p.bytes();
+        }
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("%-32s %6s %10s %10s %8s %12s%n", "Phase", "Calls", "Wall ms", "CPU ms", "Files", "Bytes"));
+        for(Map.Entry<String, long[]> e: rows.entrySet()) {
+            long[] row = e.getValue();
+            report.append(String.format("%-32s %6d %10.1f %10.1f %8d %12d%n",
+                        e.getKey(), row[0], row[1] / 1e6, row[2] / 1e6, row[3], row[4]));
+        }
+        System.console().printf(CONSOLE_FORMAT, report.toString().stripTrailing());
+    }
+    /**
+     * Write the measured phases as a chrome trace event file, viewable in chrome://tracing or perfetto.
+     * @param traceURI - the .json file to write.
+     */
+    public static void writeTrace(String traceURI) {
+        try (BufferedWriter writer = Files.newBufferedWriter(Paths.get(traceURI), StandardCharsets.UTF_8)) {
+            writer.write("{\"traceEvents\":[");
+            boolean first = true;
+            for(PhaseModel p: getPhases()) {
+                if(!first) writer.write(",");
+                first = false;
+                writer.write(String.format(
+                            "%n{\"name\":\"%s\",\"cat\":\"build\",\"ph\":\"X\",\"pid\":1,\"tid\":%d,\"ts\":%d,\"dur\":%d," +
+                            "\"args\":{\"cpuMs\":%.3f,\"files\":%d,\"bytes\":%d}}",
+                            p.name().replace("\\", "\\\\").replace("\"", "\\\""),
+                            p.thread(), p.start() / 1000, p.wall() / 1000, p.cpu() / 1e6, p.files(), p.bytes()));
+            }
+            writer.write(String.format("%n],\"displayTimeUnit\":\"ms\"}%n"));
+            System.console().printf("[Info] Profile trace written to %s%n", traceURI);
+        } catch(IOException e) {
+            e.printStackTrace();
+        }
+    }
+    private static List<PhaseModel> getPhases() {
+        List<PhaseModel> sorted = new ArrayList<>(phases);
+        sorted.sort((a, b) -> Long.compare(a.start(), b.start()));
+        return sorted;
+    }
+    private static long getCpuTime() {
+        OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        if(os instanceof com.sun.management.OperatingSystemMXBean sun) {
+            return sun.getProcessCpuTime();
+        }
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        return threads.isCurrentThreadCpuTimeSupported() ? threads.getCurrentThreadCpuTime() : 0;
+    }
+
+    /**
+     * A running phase, its measures are stored when its closed.
+     */
+    public static final class Phase implements AutoCloseable {
+        private String name;
+        private int depth;
+        private long start;
+        private long cpu;
+        private long files;
+        private long bytes;
+
+        private Phase(String name, int depth) {
+            this.name = name;
+            this.depth = depth;
+            if(name != null) {
+                start = System.nanoTime();
+                cpu = getCpuTime();
+            }
+        }
+
+        /**
+         * Add touched files to this phase.
+         * @param count - the number of files.
+         */
+        public void addFiles(long count) {
+            if(name != null) files += count;
+        }
+        /**
+         * Add read bytes to this phase.
+         * @param count - the number of bytes.
+         */
+        public void addBytes(long count) {
+            if(name != null) bytes += count;
+        }
+        @Override
+        public void close() {
+            if(name == null) return;
+            long end = System.nanoTime();
+            phases.add(new PhaseModel(name, depth, threadId.get(), start - origin, end - start,
+                        getCpuTime() - cpu, files, bytes));
+            running.get().remove(this);
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package application.utils;
+
+import java.io.IOException;
+
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In memory index of the project directories.
+ * <p> Each root is walked once and the queries are answered from the stored entries.
+ * <p> An index is re-walked only when the last modified time of one of its directories changes.
+ */
+public class ProjectIndex {
+
+    private Map<String, RootIndex> roots;
+
+    public ProjectIndex() {
+        roots = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * List the files of a given path in a certain range.
+     * @param pathURI - the path to list its files.
+     * @param level - the nested level to reach, 0 to list recursively.
+     * @return the list with only file types.
+     */
+    public List<Path> getFiles(String pathURI, int level) {
+        int depth = getDepth(level);
+        List<Path> files = new ArrayList<>();
+        for(Entry e: getRoot(pathURI, depth).entries) {
+            if(!e.directory && e.depth <= depth) files.add(e.path);
+        }
+        return files;
+    }
+    /**
+     * List the files of a given path with the given extension.
+     * @param pathURI - the path to list its files.
+     * @param level - the nested level to reach, 0 to list recursively.
+     * @param extension - the file extension like .java.
+     * @return the list of files that end with the extension.
+     */
+    public List<Path> getFiles(String pathURI, int level, String extension) {
+        return getFiles(pathURI, level)
+            .stream()
+            .filter(p -> p.getFileName().toString().endsWith(extension))
+            .toList();
+    }
+    /**
+     * List the directories of a given path that contain at least one file.
+     * @param pathURI - the path to list its directories.
+     * @param level - the nested level to reach, 0 to list recursively.
+     * @return the list of non empty directories.
+     */
+    public List<Path> getDirNames(String pathURI, int level) {
+        int depth = getDepth(level);
+        RootIndex root = getRoot(pathURI, depth);
+        List<Path> dirs = new ArrayList<>();
+        for(Entry e: root.entries) {
+            if(e.directory && e.depth <= depth && root.fileCount.getOrDefault(e.path, 0) > 0) dirs.add(e.path);
+        }
+        return dirs;
+    }
+    /**
+     * Remove every stored index.
+     */
+    public void clear() {
+        roots.clear();
+    }
+    private int getDepth(int level) {
+        return level > 0 ? level : Integer.MAX_VALUE;
+    }
+    /**
+     * Get the index of the root, walking it when its not present, not deep enough or outdated.
+     */
+    private RootIndex getRoot(String pathURI, int depth) {
+        String key = Paths.get(pathURI).normalize().toString();
+        RootIndex root = roots.get(key);
+        if(root == null || root.depth < depth || !root.isFresh()) {
+            root = walk(Paths.get(pathURI), depth);
+            roots.put(key, root);
+        }
+        return root;
+    }
+    private RootIndex walk(Path start, int depth) {
+        RootIndex root = new RootIndex(start, depth);
+        if(!root.existed) return root;
+        try (ProfileUtils.Phase phase = ProfileUtils.start("walk " + start)) {
+            Files.walkFileTree(start, EnumSet.of(FileVisitOption.FOLLOW_LINKS), depth, new SimpleFileVisitor<Path>() {
+                private int current = -1;
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attributes) {
+                    ++current;
+                    root.entries.add(new Entry(dir, current, true));
+                    root.modified.put(dir, attributes.lastModifiedTime().toMillis());
+                    return FileVisitResult.CONTINUE;
+                }
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+                    // files at the max depth are visited without their directory being pre-visited.
+                    if(attributes.isDirectory()) {
+                        root.entries.add(new Entry(file, current + 1, true));
+                        return FileVisitResult.CONTINUE;
+                    }
+                    if(!attributes.isRegularFile()) return FileVisitResult.CONTINUE;
+                    root.entries.add(new Entry(file, current + 1, false));
+                    if(file.getParent() != null) {
+                        root.fileCount.merge(file.getParent(), 1, Integer::sum);
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException e) {
+                    e.printStackTrace();
+                    return FileVisitResult.CONTINUE;
+                }
+                @Override
+                public FileVisitResult postVisitDirectory(Path dir, IOException e) {
+                    --current;
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+            phase.addFiles(root.entries.size());
+        } catch(IOException e) {
+            e.printStackTrace();
+        }
+        return root;
+    }
+
+    private record Entry(Path path, int depth, boolean directory) {}
+
+    private static class RootIndex {
+        private Path start;
+        private boolean existed;
+        private int depth;
+        private List<Entry> entries = new ArrayList<>();
+        private Map<Path, Integer> fileCount = new HashMap<>();
+        private Map<Path, Long> modified = new HashMap<>();
+
+        private RootIndex(Path start, int depth) {
+            this.start = start;
+            this.depth = depth;
+            existed = Files.exists(start);
+        }
+        /**
+         * Find if none of the walked directories changed since the walk.
+         * <p> Creating, removing or renaming entries changes the directory last modified time.
+         */
+        private boolean isFresh() {
+            if(Files.exists(start) != existed) return false;
+            for(Map.Entry<Path, Long> e: modified.entrySet()) {
+                if(e.getKey().toFile().lastModified() != e.getValue()) return false;
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package application.utils;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Fixed size byte buffer that keeps the last written bytes.
+ * <p> When the capacity is reached the oldest bytes are overwritten, so the memory is bounded
+ * no matter how much output a process writes.
+ */
+public class RingBuffer {
+
+    private byte[] buffer;
+    private int position;
+    private long written;
+
+    /**
+     * Create a ring buffer.
+     * @param capacity - the maximum number of bytes to keep.
+     */
+    public RingBuffer(int capacity) {
+        buffer = new byte[capacity];
+    }
+
+    /**
+     * Write bytes overwriting the oldest ones when the buffer is full.
+     * @param bytes - the bytes to write.
+     * @param offset - the start of the bytes.
+     * @param length - the number of bytes.
+     */
+    public synchronized void write(byte[] bytes, int offset, int length) {
+        written += length;
+        if(length >= buffer.length) {
+            System.arraycopy(bytes, offset + length - buffer.length, buffer, 0, buffer.length);
+            position = 0;
+            return;
+        }
+        int first = Math.min(length, buffer.length - position);
+        System.arraycopy(bytes, offset, buffer, position, first);
+        System.arraycopy(bytes, offset + first, buffer, 0, length - first);
+        position = (position + length) % buffer.length;
+    }
+    /**
+     * Get the total number of bytes written, including the overwritten ones.
+     * @return the written bytes.
+     */
+    public synchronized long getWritten() {
+        return written;
+    }
+    /**
+     * Get the kept bytes as text in the order they were written.
+     * @return the UTF-8 text of the last written bytes.
+     */
+    @Override
+    public synchronized String toString() {
+        if(written < buffer.length) {
+            return new String(buffer, 0, position, StandardCharsets.UTF_8);
+        }
+        byte[] ordered = new byte[buffer.length];
+        System.arraycopy(buffer, position, ordered, 0, buffer.length - position);
+        System.arraycopy(buffer, 0, ordered, buffer.length - position, position);
+        return new String(ordered, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,189 @@
+package application.utils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import application.models.ZipEntryModel;
+
+/**
+ * Read the central directory of a zip file to copy its entries without decompressing them.
+ */
+public class ZipReader implements Closeable {
+
+    private static final int END_SIGNATURE = 0x06054b50;
+    private static final int ZIP64_LOCATOR_SIGNATURE = 0x07064b50;
+    private static final int CENTRAL_SIGNATURE = 0x02014b50;
+    private static final int LOCAL_HEADER_SIZE = 30;
+    private static final int MAX_COMMENT = 0xFFFF;
+
+    private FileChannel channel;
+    private List<ZipEntryModel> entries;
+
+    /**
+     * Open the zip file and read its central directory.
+     * @param zipFile - the zip or .jar file to read.
+     */
+    public ZipReader(Path zipFile) throws IOException {
+        channel = FileChannel.open(zipFile, StandardOpenOption.READ);
+        try {
+            entries = readCentralDirectory();
+        } catch(IOException | RuntimeException e) {
+            channel.close();
+            throw new IOException("Invalid zip file " + zipFile, e);
+        }
+    }
+
+    /**
+     * Get the entries in the order of the central directory.
+     * @return the list of entries.
+     */
+    public List<ZipEntryModel> getEntries() {
+        return entries;
+    }
+    /**
+     * Copy the compressed data of an entry as is.
+     * @param entry - the entry to copy.
+     * @param output - where the compressed data is written.
+     */
+    public void copyRaw(ZipEntryModel entry, OutputStream output) throws IOException {
+        long start = getDataOffset(entry);
+        long remaining = entry.compressedSize();
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        while(remaining > 0) {
+            buffer.clear();
+            if(remaining < buffer.capacity()) buffer.limit((int) remaining);
+            int read = channel.read(buffer, start);
+            if(read <= 0) throw new IOException("Unexpected end of zip data in " + entry.name());
+            output.write(buffer.array(), 0, read);
+            start += read;
+            remaining -= read;
+        }
+    }
+    /**
+     * Read the uncompressed content of an entry.
+     * @param entry - the entry to read.
+     * @return the content bytes.
+     */
+    public byte[] readContent(ZipEntryModel entry) throws IOException {
+        ByteBuffer data = ByteBuffer.allocate((int) entry.compressedSize());
+        long position = getDataOffset(entry);
+        while(data.hasRemaining()) {
+            if(channel.read(data, position + data.position()) <= 0) {
+                throw new IOException("Unexpected end of zip data in " + entry.name());
+            }
+        }
+        if(entry.method() == 0) return data.array();
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(data.array());
+            byte[] content = new byte[(int) entry.size()];
+            int n = 0;
+            while(n < content.length && !inflater.finished()) {
+                int read = inflater.inflate(content, n, content.length - n);
+                if(read == 0 && (inflater.needsInput() || inflater.needsDictionary())) break;
+                n += read;
+            }
+            return content;
+        } catch(DataFormatException e) {
+            throw new IOException("Invalid compressed data in " + entry.name(), e);
+        } finally {
+            inflater.end();
+        }
+    }
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+    private long getDataOffset(ZipEntryModel entry) throws IOException {
+        ByteBuffer header = read(entry.headerOffset(), LOCAL_HEADER_SIZE);
+        int nameLength = Short.toUnsignedInt(header.getShort(26));
+        int extraLength = Short.toUnsignedInt(header.getShort(28));
+        return entry.headerOffset() + LOCAL_HEADER_SIZE + nameLength + extraLength;
+    }
+    private List<ZipEntryModel> readCentralDirectory() throws IOException {
+        long size = channel.size();
+        int tail = (int) Math.min(size, 22 + MAX_COMMENT);
+        ByteBuffer end = read(size - tail, tail);
+        int position = -1;
+        for(int i=tail - 22; i>=0; --i) {
+            if(end.getInt(i) == END_SIGNATURE) {
+                position = i;
+                break;
+            }
+        }
+        if(position == -1) throw new IOException("End of central directory not found");
+        long count = Short.toUnsignedInt(end.getShort(position + 10));
+        long directorySize = Integer.toUnsignedLong(end.getInt(position + 12));
+        long directoryOffset = Integer.toUnsignedLong(end.getInt(position + 16));
+        long endOffset = size - tail + position;
+        if(endOffset >= 20 && read(endOffset - 20, 4).getInt(0) == ZIP64_LOCATOR_SIGNATURE) {
+            long zip64End = read(endOffset - 20 + 8, 8).getLong(0);
+            ByteBuffer record = read(zip64End, 56);
+            count = record.getLong(32);
+            directorySize = record.getLong(40);
+            directoryOffset = record.getLong(48);
+        }
+
+        ByteBuffer directory = read(directoryOffset, (int) directorySize);
+        List<ZipEntryModel> result = new ArrayList<>();
+        int p = 0;
+        for(long i=0; i<count; ++i) {
+            if(directory.getInt(p) != CENTRAL_SIGNATURE) throw new IOException("Invalid central directory entry");
+            int method = Short.toUnsignedInt(directory.getShort(p + 10));
+            long crc = Integer.toUnsignedLong(directory.getInt(p + 16));
+            long compressedSize = Integer.toUnsignedLong(directory.getInt(p + 20));
+            long uncompressedSize = Integer.toUnsignedLong(directory.getInt(p + 24));
+            int nameLength = Short.toUnsignedInt(directory.getShort(p + 28));
+            int extraLength = Short.toUnsignedInt(directory.getShort(p + 30));
+            int commentLength = Short.toUnsignedInt(directory.getShort(p + 32));
+            long headerOffset = Integer.toUnsignedLong(directory.getInt(p + 42));
+            byte[] name = new byte[nameLength];
+            directory.get(p + 46, name);
+
+            // zip64 extra field with the values that didn't fit in 32 bits.
+            int extra = p + 46 + nameLength;
+            int extraEnd = extra + extraLength;
+            while(extra + 4 <= extraEnd) {
+                int id = Short.toUnsignedInt(directory.getShort(extra));
+                int length = Short.toUnsignedInt(directory.getShort(extra + 2));
+                if(id == 0x0001) {
+                    int v = extra + 4;
+                    if(uncompressedSize == 0xFFFFFFFFL) {
+                        uncompressedSize = directory.getLong(v);
+                        v += 8;
+                    }
+                    if(compressedSize == 0xFFFFFFFFL) {
+                        compressedSize = directory.getLong(v);
+                        v += 8;
+                    }
+                    if(headerOffset == 0xFFFFFFFFL) headerOffset = directory.getLong(v);
+                }
+                extra += 4 + length;
+            }
+            result.add(new ZipEntryModel(
+                        new String(name, StandardCharsets.UTF_8), method, crc, compressedSize, uncompressedSize, headerOffset));
+            p += 46 + nameLength + extraLength + commentLength;
+        }
+        return result;
+    }
+    private ByteBuffer read(long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        while(buffer.hasRemaining()) {
+            if(channel.read(buffer, position + buffer.position()) <= 0) throw new IOException("Unexpected end of zip file");
+        }
+        return buffer.flip();
+    }
+}
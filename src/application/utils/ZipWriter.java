@@ -0,0 +1,203 @@
+package application.utils;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+import application.models.ZipEntryModel;
+
+/**
+ * Write zip files entry by entry, allowing to copy already compressed entries from other zip files.
+ * <p> Every entry uses the same fixed time so the output only depends on the entries content and order.
+ */
+public class ZipWriter implements Closeable {
+
+    public static final int STORED = 0;
+    public static final int DEFLATED = 8;
+
+    private static final int LOCAL_SIGNATURE = 0x04034b50;
+    private static final int CENTRAL_SIGNATURE = 0x02014b50;
+    private static final int END_SIGNATURE = 0x06054b50;
+    private static final int ZIP64_END_SIGNATURE = 0x06064b50;
+    private static final int ZIP64_LOCATOR_SIGNATURE = 0x07064b50;
+    private static final int VERSION = 20;
+    private static final int VERSION_ZIP64 = 45;
+    // names are encoded in UTF-8.
+    private static final int FLAGS = 0x0800;
+    // 1980-02-01 00:00 in MS-DOS format.
+    private static final int DOS_TIME = 0;
+    private static final int DOS_DATE = (2 << 5) | 1;
+    private static final long MAX_32 = 0xFFFFFFFFL;
+
+    private OutputStream output;
+    private long position;
+    private List<ZipEntryModel> written;
+    private Deflater deflater;
+
+    /**
+     * Create the zip file.
+     * @param zipFile - the file to write, its replaced if exists.
+     * @param level - the deflate level used by {@link #writeFile(String, byte[])}, 0 to store the entries.
+     */
+    public ZipWriter(Path zipFile, int level) throws IOException {
+        output = new BufferedOutputStream(Files.newOutputStream(zipFile), 1 << 16);
+        written = new ArrayList<>();
+        // raw deflate data, the zip headers are written by this class.
+        deflater = level == 0 ? null : new Deflater(level, true);
+    }
+
+    /**
+     * Write a directory entry.
+     * @param name - the entry name ending with /.
+     */
+    public void writeDirectory(String name) throws IOException {
+        writeHeader(name, STORED, 0, 0, 0);
+    }
+    /**
+     * Write a file entry compressing the content with the writer level.
+     * @param name - the entry name.
+     * @param content - the uncompressed content.
+     * @return the written entry information.
+     */
+    public ZipEntryModel writeFile(String name, byte[] content) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(content);
+        if(deflater == null || content.length == 0) {
+            ZipEntryModel entry = writeHeader(name, STORED, crc.getValue(), content.length, content.length);
+            writeBytes(content, content.length);
+            return entry;
+        }
+        deflater.reset();
+        deflater.setInput(content);
+        deflater.finish();
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(content.length / 2 + 64);
+        byte[] buffer = new byte[8192];
+        while(!deflater.finished()) {
+            int n = deflater.deflate(buffer);
+            compressed.write(buffer, 0, n);
+        }
+        ZipEntryModel entry = writeHeader(name, DEFLATED, crc.getValue(), compressed.size(), content.length);
+        writeBytes(compressed.toByteArray(), compressed.size());
+        return entry;
+    }
+    /**
+     * Copy an entry from other zip file without decompressing it.
+     * @param name - the entry name in this zip file.
+     * @param entry - the entry to copy.
+     * @param reader - the zip file that contains the entry.
+     * @return the written entry information.
+     */
+    public ZipEntryModel copyEntry(String name, ZipEntryModel entry, ZipReader reader) throws IOException {
+        ZipEntryModel copy = writeHeader(name, entry.method(), entry.crc(), entry.compressedSize(), entry.size());
+        reader.copyRaw(entry, output);
+        position += entry.compressedSize();
+        return copy;
+    }
+    /**
+     * Write the central directory and close the file.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            long directoryOffset = position;
+            for(ZipEntryModel e: written) {
+                byte[] name = e.name().getBytes(StandardCharsets.UTF_8);
+                ByteBuffer header = ByteBuffer.allocate(46).order(ByteOrder.LITTLE_ENDIAN);
+                header.putInt(CENTRAL_SIGNATURE);
+                header.putShort((short) VERSION);
+                header.putShort((short) VERSION);
+                header.putShort((short) FLAGS);
+                header.putShort((short) e.method());
+                header.putShort((short) DOS_TIME);
+                header.putShort((short) DOS_DATE);
+                header.putInt((int) e.crc());
+                header.putInt((int) e.compressedSize());
+                header.putInt((int) e.size());
+                header.putShort((short) name.length);
+                // extra, comment, disk, internal and external attributes.
+                header.putShort((short) 0);
+                header.putShort((short) 0);
+                header.putShort((short) 0);
+                header.putShort((short) 0);
+                header.putInt(0);
+                header.putInt((int) e.headerOffset());
+                writeBytes(header.array(), 46);
+                writeBytes(name, name.length);
+            }
+            long directorySize = position - directoryOffset;
+            boolean zip64 = written.size() >= 0xFFFF || directoryOffset >= MAX_32;
+            if(zip64) {
+                long zip64Offset = position;
+                ByteBuffer record = ByteBuffer.allocate(76).order(ByteOrder.LITTLE_ENDIAN);
+                record.putInt(ZIP64_END_SIGNATURE);
+                record.putLong(44);
+                record.putShort((short) VERSION_ZIP64);
+                record.putShort((short) VERSION_ZIP64);
+                record.putInt(0);
+                record.putInt(0);
+                record.putLong(written.size());
+                record.putLong(written.size());
+                record.putLong(directorySize);
+                record.putLong(directoryOffset);
+                record.putInt(ZIP64_LOCATOR_SIGNATURE);
+                record.putInt(0);
+                record.putLong(zip64Offset);
+                record.putInt(1);
+                writeBytes(record.array(), 76);
+            }
+            ByteBuffer end = ByteBuffer.allocate(22).order(ByteOrder.LITTLE_ENDIAN);
+            end.putInt(END_SIGNATURE);
+            end.putShort((short) 0);
+            end.putShort((short) 0);
+            end.putShort((short) (zip64 ? 0xFFFF : written.size()));
+            end.putShort((short) (zip64 ? 0xFFFF : written.size()));
+            end.putInt((int) directorySize);
+            end.putInt((int) (zip64 ? MAX_32 : directoryOffset));
+            end.putShort((short) 0);
+            writeBytes(end.array(), 22);
+        } finally {
+            if(deflater != null) deflater.end();
+            output.close();
+        }
+    }
+    private ZipEntryModel writeHeader(String name, int method, long crc, long compressedSize, long size) throws IOException {
+        if(compressedSize >= MAX_32 || size >= MAX_32 || position >= MAX_32) {
+            throw new IOException("Entry " + name + " needs zip64 sizes, which are not supported");
+        }
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        ZipEntryModel entry = new ZipEntryModel(name, method, crc, compressedSize, size, position);
+        ByteBuffer header = ByteBuffer.allocate(30).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(LOCAL_SIGNATURE);
+        header.putShort((short) VERSION);
+        header.putShort((short) FLAGS);
+        header.putShort((short) method);
+        header.putShort((short) DOS_TIME);
+        header.putShort((short) DOS_DATE);
+        header.putInt((int) crc);
+        header.putInt((int) compressedSize);
+        header.putInt((int) size);
+        header.putShort((short) bytes.length);
+        header.putShort((short) 0);
+        writeBytes(header.array(), 30);
+        writeBytes(bytes, bytes.length);
+        written.add(entry);
+        return entry;
+    }
+    private void writeBytes(byte[] bytes, int length) throws IOException {
+        output.write(bytes, 0, length);
+        position += length;
+    }
+}
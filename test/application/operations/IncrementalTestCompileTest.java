@@ -0,0 +1,93 @@
+package application.operations;
+
+import java.io.IOException;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+import application.builders.CompileBuilder;
+
+/**
+ * The test tree is compiled incrementally when its Test-Path is outside the Root-Path.
+ * <p> The test tree is compiled twice like two --test executions without edits,
+ * the second one must not find modified or removed test files.
+ * <p> It runs the same steps of the test compilation without the console, since the tests run in a forked JVM.
+ */
+public class IncrementalTestCompileTest {
+
+    public static void main(String[] args) throws IOException {
+        Path project = Files.createTempDirectory("javabuild-test");
+        try {
+            Files.createDirectories(project.resolve("src/app"));
+            Files.createDirectories(project.resolve("test/app"));
+            Files.writeString(project.resolve("src/app/Helper.java"),
+                    "package app;\npublic class Helper { public static String greet() { return \"hey\"; } }\n",
+                    StandardCharsets.UTF_8);
+            Files.writeString(project.resolve("test/app/HelperTest.java"),
+                    "package app;\npublic class HelperTest { public static void main(String[] a) { Helper.greet(); } }\n",
+                    StandardCharsets.UTF_8);
+            String root = project.resolve("src").toString();
+            String classPath = project.resolve("bin").toString();
+            compile(List.of(project.resolve("src/app/Helper.java").toString()), classPath, "");
+
+            String testPath = project.resolve("test").toString();
+            String testRoot = new CompileBuilder(root, new FileOperation()).getPackageRoot(testPath);
+            check(testRoot.equals(testPath), "the test root is the Test-Path, found " + testRoot);
+
+            String testClassPath = project.resolve("bin-test").toString();
+            List<String> first = compileTests(testPath, testClassPath, testRoot, classPath);
+            check(first.size() == 1, "the first execution compiles the test file, found " + first);
+            List<String> second = compileTests(testPath, testClassPath, testRoot, classPath);
+            check(second.isEmpty(), "the second execution compiles nothing, found " + second);
+            check(Files.exists(project.resolve("bin-test/app/HelperTest.class")), "the test class file is kept");
+        } finally {
+            delete(project);
+        }
+    }
+    /**
+     * Compile the test tree like the test operation does.
+     * @return the compiled test files.
+     */
+    private static List<String> compileTests(String testPath, String testClassPath, String testRoot, String classPath) {
+        CompileBuilder builder = new CompileBuilder(testRoot, new FileOperation());
+        StateOperation state = new StateOperation(testClassPath).load();
+        GraphOperation graph = new GraphOperation(testClassPath, testRoot);
+        List<String> files;
+        if(!Files.exists(Path.of(testClassPath))) {
+            files = builder.getSourceFiles(testPath);
+        } else {
+            graph.load();
+            files = new ArrayList<>(builder.getModifiedFiles(testPath, testClassPath, state));
+            files.addAll(graph.getRemovedSourceFiles());
+        }
+        if(!files.isEmpty()) compile(files, testClassPath, classPath);
+        graph.update();
+        state.save(files);
+        return files;
+    }
+    private static void compile(List<String> files, String classPath, String assets) {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        List<String> arguments = new ArrayList<>(List.of("-d", classPath));
+        if(!assets.isBlank()) arguments.addAll(List.of("-cp", assets));
+        arguments.addAll(files);
+        check(compiler.run(null, null, null, arguments.toArray(new String[0])) == 0, "the files compile " + files);
+    }
+    private static void check(boolean condition, String message) {
+        if(!condition) throw new AssertionError(message);
+    }
+    private static void delete(Path directory) throws IOException {
+        try (Stream<Path> s = Files.walk(directory)) {
+            for(Path p: s.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(p);
+            }
+        }
+    }
+}